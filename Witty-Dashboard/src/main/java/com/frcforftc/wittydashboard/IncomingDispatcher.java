@@ -0,0 +1,236 @@
+package com.frcforftc.wittydashboard;
+
+import org.frcforftc.networktables.NetworkTablesEntry;
+import org.frcforftc.networktables.NetworkTablesEvent;
+import org.frcforftc.networktables.NetworkTablesEventListener;
+import org.frcforftc.networktables.NetworkTablesInstance;
+import org.frcforftc.networktables.NetworkTablesValue;
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Routes the values written to topics by the dashboard to the setters registered for them.
+ * Every registered topic gets a dense id, indexing flat arrays of entries, types and setters.
+ * The listener of a topic only carries its id, so an update is handled with a single array access
+ * and a direct call of the typed setter, without looking the entry up again or casting through reflection.
+ * <p>
+ * Setters run on the NetworkTables thread by default. When deferred, updates are only queued, coalesced to the
+ * latest value per topic, and the setters are run by {@link #processIncoming()} on the thread calling it.
+ * Setters marked immediate always run on the NetworkTables thread, for requests that cannot wait for the loop.
+ */
+final class IncomingDispatcher {
+    private final Map<String, Integer> m_ids = new HashMap<>();
+    private final IncomingQueue m_queue = new IncomingQueue();
+    private volatile NetworkTablesEntry[] m_entries = new NetworkTablesEntry[0];
+    private volatile NetworkTablesValueType[] m_types = new NetworkTablesValueType[0];
+    private volatile Object[] m_setters = new Object[0];
+    private volatile IncomingQueue.Node[] m_nodes = new IncomingQueue.Node[0];
+    private volatile boolean[] m_immediate = new boolean[0];
+    private volatile boolean m_deferred = false;
+
+    /**
+     * Registers the setter of a double topic.
+     *
+     * @param key    the key of the topic
+     * @param setter the setter called with every value written by the dashboard
+     * @return false if the topic does not exist yet
+     */
+    boolean registerDouble(String key, DoubleConsumer setter) {
+        return register(key, NetworkTablesValueType.Double, setter);
+    }
+
+    /**
+     * Registers the setter of an integer topic.
+     *
+     * @param key    the key of the topic
+     * @param setter the setter called with every value written by the dashboard
+     * @return false if the topic does not exist yet
+     */
+    boolean registerInt(String key, IntConsumer setter) {
+        return register(key, NetworkTablesValueType.Int, setter);
+    }
+
+    /**
+     * Registers the setter of a topic of any type.
+     *
+     * @param key    the key of the topic
+     * @param type   the type of the topic, values of other types are ignored
+     * @param setter the setter called with every value written by the dashboard
+     * @return false if the topic does not exist yet
+     */
+    @SuppressWarnings("unchecked")
+    boolean registerGeneric(String key, NetworkTablesValueType type, Consumer<?> setter) {
+        if (setter == null) return false;
+
+        return switch (type) {
+            case Double -> register(key, type, (DoubleConsumer) ((Consumer<Double>) setter)::accept);
+            case Int -> register(key, type, (IntConsumer) ((Consumer<Integer>) setter)::accept);
+            default -> register(key, type, setter);
+        };
+    }
+
+    private synchronized boolean register(String key, NetworkTablesValueType type, Object setter) {
+        if (setter == null) return false;
+
+        NetworkTablesEntry entry = NetworkTablesInstance.getDefaultInstance().get(key);
+        if (entry == null) return false;
+
+        Integer id = m_ids.get(key);
+        if (id != null && m_entries[id] == entry) {
+            // Already listening to this entry, only the setter changes
+            m_types[id] = type;
+            m_setters[id] = setter;
+            return true;
+        }
+
+        int newId = m_entries.length;
+        NetworkTablesEntry[] entries = Arrays.copyOf(m_entries, newId + 1);
+        NetworkTablesValueType[] types = Arrays.copyOf(m_types, newId + 1);
+        Object[] setters = Arrays.copyOf(m_setters, newId + 1);
+        IncomingQueue.Node[] nodes = Arrays.copyOf(m_nodes, newId + 1);
+        boolean[] immediate = Arrays.copyOf(m_immediate, newId + 1);
+        entries[newId] = entry;
+        types[newId] = type;
+        setters[newId] = setter;
+        nodes[newId] = new IncomingQueue.Node(newId);
+        m_types = types;
+        m_setters = setters;
+        m_nodes = nodes;
+        m_immediate = immediate;
+        m_entries = entries;
+        m_ids.put(key, newId);
+
+        entry.addListener(new NetworkTablesEventListener(EnumSet.of(NetworkTablesEvent.kTopicUpdated), (NetworkTablesEvent e) -> dispatch(newId)));
+
+        return true;
+    }
+
+    /**
+     * Removes all the setters. The listeners stay attached to their entries and ignore updates
+     * until a setter is registered for their topic again.
+     */
+    synchronized void clear() {
+        Arrays.fill(m_setters, null);
+        Arrays.fill(m_immediate, false);
+    }
+
+    /**
+     * Removes the setters of the topics whose key does not match the filter, like {@link #clear()} does for every topic.
+     *
+     * @param keep the filter of the keys whose setters are kept
+     */
+    synchronized void clear(Predicate<String> keep) {
+        for (Map.Entry<String, Integer> entry : m_ids.entrySet()) {
+            if (keep.test(entry.getKey())) continue;
+
+            m_setters[entry.getValue()] = null;
+            m_immediate[entry.getValue()] = false;
+        }
+    }
+
+    /**
+     * Makes the setter of a registered topic run on the NetworkTables thread as soon as a value arrives,
+     * even while the setters are deferred.
+     *
+     * @param key the key of the topic
+     */
+    synchronized void setImmediate(String key) {
+        Integer id = m_ids.get(key);
+        if (id == null) return;
+
+        boolean[] immediate = m_immediate.clone();
+        immediate[id] = true;
+        m_immediate = immediate;
+    }
+
+    /**
+     * Sets whether the setters are deferred to {@link #processIncoming()} instead of running on the NetworkTables thread.
+     *
+     * @param deferred true to queue the updates
+     */
+    void setDeferred(boolean deferred) {
+        m_deferred = deferred;
+    }
+
+    boolean isDeferred() {
+        return m_deferred;
+    }
+
+    /**
+     * Applies the queued updates on the calling thread, at most one value per topic.
+     * Must only be called from a single thread at a time.
+     */
+    void processIncoming() {
+        IncomingQueue.Node node;
+        while ((node = m_queue.poll()) != null) {
+            Object value = node.m_pending.getAndSet(null);
+            if (value != null) {
+                apply(node.m_id, value);
+            }
+        }
+    }
+
+    private void dispatch(int id) {
+        if (m_setters[id] == null) return;
+
+        NetworkTablesValue networkTablesValue = m_entries[id].getValue();
+        Object value = networkTablesValue == null ? null : networkTablesValue.get();
+        if (value == null) return;
+
+        if (m_deferred && !m_immediate[id]) {
+            m_queue.offer(m_nodes[id], value);
+        } else {
+            apply(id, value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void apply(int id, Object value) {
+        Object setter = m_setters[id];
+        if (setter == null) return;
+
+        switch (m_types[id]) {
+            case Double -> {
+                if (value instanceof Number) ((DoubleConsumer) setter).accept(((Number) value).doubleValue());
+            }
+            case Int -> {
+                if (value instanceof Number) ((IntConsumer) setter).accept(((Number) value).intValue());
+            }
+            case Float -> {
+                if (value instanceof Number) ((Consumer<Float>) setter).accept(((Number) value).floatValue());
+            }
+            case Boolean -> {
+                if (value instanceof Boolean) ((Consumer<Boolean>) setter).accept((Boolean) value);
+            }
+            case String -> {
+                if (value instanceof String) ((Consumer<String>) setter).accept((String) value);
+            }
+            case Raw -> {
+                if (value instanceof byte[]) ((Consumer<byte[]>) setter).accept((byte[]) value);
+            }
+            case BooleanArray -> {
+                if (value instanceof boolean[]) ((Consumer<boolean[]>) setter).accept((boolean[]) value);
+            }
+            case DoubleArray -> {
+                if (value instanceof double[]) ((Consumer<double[]>) setter).accept((double[]) value);
+            }
+            case FloatArray -> {
+                if (value instanceof float[]) ((Consumer<float[]>) setter).accept((float[]) value);
+            }
+            case IntArray -> {
+                if (value instanceof int[]) ((Consumer<int[]>) setter).accept((int[]) value);
+            }
+            case StringArray -> {
+                if (value instanceof String[]) ((Consumer<String[]>) setter).accept((String[]) value);
+            }
+        }
+    }
+}
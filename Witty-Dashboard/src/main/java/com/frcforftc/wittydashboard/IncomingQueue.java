@@ -0,0 +1,85 @@
+package com.frcforftc.wittydashboard;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A lock-free multi-producer single-consumer queue of incoming values, coalescing to the latest value per topic.
+ * Every topic owns a single {@link Node}, which is only linked into the queue while it holds a pending value,
+ * so writing a value never allocates and a topic written several times before being polled is applied once.
+ * The linking follows Dmitry Vyukov's intrusive MPSC queue.
+ */
+final class IncomingQueue {
+    private final Node m_stub = new Node(-1);
+    private final AtomicReference<Node> m_head = new AtomicReference<>(m_stub);
+    private Node m_tail = m_stub;
+
+    /**
+     * The queue node and pending value of a single topic.
+     */
+    static final class Node {
+        final int m_id;
+        final AtomicReference<Object> m_pending = new AtomicReference<>();
+        volatile Node m_next;
+
+        Node(int id) {
+            this.m_id = id;
+        }
+    }
+
+    /**
+     * Stores the latest value of a topic, linking its node into the queue if it was not pending yet.
+     * May be called from any thread.
+     *
+     * @param node  the node of the topic
+     * @param value the value written by the dashboard
+     * @return false if the value replaced a pending value that was not applied yet
+     */
+    boolean offer(Node node, Object value) {
+        if (node.m_pending.getAndSet(value) != null) return false;
+
+        push(node);
+        return true;
+    }
+
+    /**
+     * Takes the next node with a pending value. Must only be called from the consuming thread.
+     *
+     * @return the node, whose pending value should be taken with {@code getAndSet(null)}, or null if the queue is empty
+     */
+    Node poll() {
+        Node tail = m_tail;
+        Node next = tail.m_next;
+        if (tail == m_stub) {
+            if (next == null) return null;
+            m_tail = next;
+            tail = next;
+            next = next.m_next;
+        }
+        if (next != null) {
+            m_tail = next;
+            tail.m_next = null;
+            return tail;
+        }
+
+        if (tail != m_head.get()) {
+            // A producer is in the middle of linking a node
+            return null;
+        }
+
+        push(m_stub);
+        next = tail.m_next;
+        if (next != null) {
+            m_tail = next;
+            tail.m_next = null;
+            return tail;
+        }
+
+        return null;
+    }
+
+    private void push(Node node) {
+        node.m_next = null;
+        Node previous = m_head.getAndSet(node);
+        previous.m_next = node;
+    }
+}
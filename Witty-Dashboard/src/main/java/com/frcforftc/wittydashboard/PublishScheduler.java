@@ -0,0 +1,233 @@
+package com.frcforftc.wittydashboard;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the periodic publishing work of the dashboard on a single timer thread.
+ * Tasks are ordered by their next deadline and every task that is due is run in the same wake-up.
+ * Deadlines are aligned to multiples of the task's period, so tasks with related periods
+ * (e.g. 20 ms and 200 ms) fall due together instead of waking the thread separately.
+ */
+final class PublishScheduler {
+    private final PriorityQueue<Task> m_tasks = new PriorityQueue<>(11, (a, b) -> Long.compare(a.m_deadlineNanos, b.m_deadlineNanos));
+    private Thread m_thread;
+    private volatile boolean m_running = false;
+    /**
+     * Changes on every {@link #clear()}, so tasks that were running during a clear are not scheduled again.
+     */
+    private int m_generation = 0;
+
+    private long m_driftSamples = 0;
+    private long m_driftSumNanos = 0;
+    private long m_maxDriftNanos = 0;
+
+    /**
+     * A unit of periodic work registered with the scheduler.
+     */
+    static final class Task {
+        private final Runnable m_runnable;
+        private final long m_periodNanos;
+        private long m_deadlineNanos;
+        private boolean m_runAgain = false;
+        private volatile boolean m_cancelled = false;
+
+        private Task(Runnable runnable, long periodNanos, long deadlineNanos) {
+            this.m_runnable = runnable;
+            this.m_periodNanos = periodNanos;
+            this.m_deadlineNanos = deadlineNanos;
+        }
+    }
+
+    /**
+     * Schedules a task that runs immediately and then once every period.
+     *
+     * @param runnable the work to run
+     * @param periodMs the period in milliseconds, 0 or less to run the task only once
+     * @return the scheduled task, used to cancel it
+     */
+    synchronized Task schedule(Runnable runnable, long periodMs) {
+        Task task = new Task(runnable, TimeUnit.MILLISECONDS.toNanos(periodMs), System.nanoTime());
+        m_tasks.add(task);
+        notifyAll();
+        return task;
+    }
+
+    /**
+     * Runs a task as soon as possible instead of at its next deadline, then goes on at its period.
+     * A task that is currently running runs again right after its run.
+     *
+     * @param task the task to run
+     */
+    synchronized void runNow(Task task) {
+        if (task == null || task.m_cancelled) return;
+
+        if (m_tasks.remove(task)) {
+            task.m_deadlineNanos = System.nanoTime();
+            m_tasks.add(task);
+            notifyAll();
+        } else {
+            task.m_runAgain = true;
+        }
+    }
+
+    /**
+     * Cancels a scheduled task. A task that is currently running finishes its run.
+     *
+     * @param task the task to cancel
+     */
+    synchronized void cancel(Task task) {
+        if (task == null) return;
+
+        task.m_cancelled = true;
+        m_tasks.remove(task);
+    }
+
+    /**
+     * Cancels all the scheduled tasks, including the ones that are currently running, which finish their run.
+     */
+    synchronized void clear() {
+        for (Task task : m_tasks) {
+            task.m_cancelled = true;
+        }
+        m_tasks.clear();
+        m_generation++;
+    }
+
+    synchronized void start() {
+        if (m_running) return;
+
+        m_running = true;
+        m_thread = new Thread(this::run, "WittyDashboard Publisher");
+        m_thread.setDaemon(true);
+        m_thread.start();
+    }
+
+    /**
+     * Stops the publisher thread and waits for it to finish, so no task runs after this returns
+     * and a following {@link #start()} does not run alongside the old thread.
+     */
+    void stop() {
+        Thread thread;
+        synchronized (this) {
+            m_running = false;
+            thread = m_thread;
+            if (thread == null) return;
+
+            m_thread = null;
+            thread.interrupt();
+        }
+        // The lock is released while joining, the thread needs it to finish its tick
+        if (thread == Thread.currentThread()) return;
+
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    boolean isRunning() {
+        return m_running;
+    }
+
+    /**
+     * @return the average delay between the planned and the actual start of a task since the last reset, in milliseconds
+     */
+    synchronized double getAverageDriftMs() {
+        if (m_driftSamples == 0) return 0;
+        return m_driftSumNanos / (double) m_driftSamples / 1e6;
+    }
+
+    /**
+     * @return the largest delay between the planned and the actual start of a task since the last reset, in milliseconds
+     */
+    synchronized double getMaxDriftMs() {
+        return m_maxDriftNanos / 1e6;
+    }
+
+    synchronized void resetDriftStats() {
+        m_driftSamples = 0;
+        m_driftSumNanos = 0;
+        m_maxDriftNanos = 0;
+    }
+
+    private synchronized void recordDrift(long driftNanos) {
+        m_driftSamples++;
+        m_driftSumNanos += driftNanos;
+        m_maxDriftNanos = Math.max(m_maxDriftNanos, driftNanos);
+    }
+
+    private void run() {
+        ArrayList<Task> dueTasks = new ArrayList<>();
+        int generation;
+        try {
+            while (m_running) {
+                synchronized (this) {
+                    generation = m_generation;
+                    long now = System.nanoTime();
+                    Task next = m_tasks.peek();
+                    while (next == null || next.m_deadlineNanos > now) {
+                        if (next == null) {
+                            wait();
+                        } else {
+                            TimeUnit.NANOSECONDS.timedWait(this, next.m_deadlineNanos - now);
+                        }
+                        if (!m_running) return;
+
+                        now = System.nanoTime();
+                        next = m_tasks.peek();
+                    }
+
+                    while (next != null && next.m_deadlineNanos <= now) {
+                        dueTasks.add(m_tasks.poll());
+                        next = m_tasks.peek();
+                    }
+                }
+
+                for (int i = 0; i < dueTasks.size(); i++) {
+                    Task task = dueTasks.get(i);
+                    if (task.m_cancelled) continue;
+
+                    recordDrift(System.nanoTime() - task.m_deadlineNanos);
+                    try {
+                        task.m_runnable.run();
+                    } catch (RuntimeException e) {
+                        RobotLog.ee("WittyDashboard", e, "Publish task failed");
+                    }
+                }
+
+                synchronized (this) {
+                    long now = System.nanoTime();
+                    // Tasks that ran while the scheduler was stopped or cleared are cancelled
+                    boolean requeue = m_running && generation == m_generation;
+                    for (int i = 0; i < dueTasks.size(); i++) {
+                        Task task = dueTasks.get(i);
+                        if (!requeue || task.m_cancelled || task.m_periodNanos <= 0) continue;
+
+                        task.m_deadlineNanos = task.m_runAgain ? now : nextDeadline(now, task.m_periodNanos);
+                        task.m_runAgain = false;
+                        m_tasks.add(task);
+                    }
+                }
+                dueTasks.clear();
+            }
+        } catch (InterruptedException ignored) {
+            // Stopped
+        }
+    }
+
+    /**
+     * @return the first multiple of the period after the given time
+     */
+    static long nextDeadline(long nowNanos, long periodNanos) {
+        return (Math.floorDiv(nowNanos, periodNanos) + 1) * periodNanos;
+    }
+}
@@ -3,91 +3,110 @@ package com.frcforftc.wittydashboard;
 import com.frcforftc.wittydashboard.sendables.Sendable;
 import com.frcforftc.wittydashboard.sendables.SendableBuilder;
 
-import org.frcforftc.networktables.NetworkTablesEvent;
-import org.frcforftc.networktables.NetworkTablesEventListener;
-import org.frcforftc.networktables.NetworkTablesInstance;
-import org.frcforftc.networktables.NetworkTablesValue;
-
-import java.util.Collections;
-import java.util.EnumSet;
-import java.util.HashSet;
-import java.util.Set;
+import org.frcforftc.networktables.NetworkTablesValueType;
+
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
 import java.util.function.Supplier;
 
 class SendableBuilderImpl extends SendableBuilder {
-    private final Set<String> keysWithListeners = Collections.synchronizedSet(new HashSet<>());
+    private final IncomingDispatcher m_dispatcher;
+    private final PublishScheduler m_scheduler;
+    private final Sendable m_sendable;
+    private volatile PublishScheduler.Task m_task;
 
-    public SendableBuilderImpl(Sendable sendable) {
+    public SendableBuilderImpl(Sendable sendable, IncomingDispatcher dispatcher, PublishScheduler scheduler) {
         super(sendable);
+        this.m_sendable = sendable;
+        this.m_dispatcher = dispatcher;
+        this.m_scheduler = scheduler;
+    }
+
+    public Sendable getSendable() {
+        return m_sendable;
+    }
+
+    PublishScheduler.Task getTask() {
+        return m_task;
     }
 
-    private <T> void publishProperty(String key, Supplier<T> getter, Consumer<T> setter, Class<T> type) {
-        if (keysWithListeners.contains(key)) return;
+    void setTask(PublishScheduler.Task task) {
+        this.m_task = task;
+    }
 
-        NetworkTablesInstance.getDefaultInstance().get(key)
-                .addListener(new NetworkTablesEventListener(EnumSet.of(NetworkTablesEvent.kTopicUpdated), (NetworkTablesEvent e) -> {
-                    NetworkTablesValue value = NetworkTablesInstance.getDefaultInstance().get(key).getValue();
-                    if (type.isInstance(value.get())) {
-                        setter.accept(type.cast(value.get()));
-                    }
-                }));
+    @Override
+    public void requestPost() {
+        m_scheduler.runNow(m_task);
+    }
 
-        keysWithListeners.add(key);
+    @Override
+    protected void publishImmediate(String topic) {
+        m_dispatcher.setImmediate(topic);
+    }
+
+    @Override
+    protected void publishPrimitiveDoubleProperty(String key, DoubleConsumer setter) {
+        m_dispatcher.registerDouble(key, setter);
+    }
+
+    @Override
+    protected void publishPrimitiveIntProperty(String key, IntConsumer setter) {
+        m_dispatcher.registerInt(key, setter);
     }
 
     @Override
     public void publishDoubleProperty(String key, Supplier<Double> getter, Consumer<Double> setter) {
-        publishProperty(key, getter, setter, Double.class);
+        if (setter != null) m_dispatcher.registerDouble(key, setter::accept);
     }
 
     @Override
     public void publishDoubleArrayProperty(String key, Supplier<double[]> getter, Consumer<double[]> setter) {
-        publishProperty(key, getter, setter, double[].class);
+        m_dispatcher.registerGeneric(key, NetworkTablesValueType.DoubleArray, setter);
     }
 
     @Override
     public void publishBooleanProperty(String key, Supplier<Boolean> getter, Consumer<Boolean> setter) {
-        publishProperty(key, getter, setter, Boolean.class);
+        m_dispatcher.registerGeneric(key, NetworkTablesValueType.Boolean, setter);
     }
 
     @Override
     public void publishBooleanArrayProperty(String key, Supplier<boolean[]> getter, Consumer<boolean[]> setter) {
-        publishProperty(key, getter, setter, boolean[].class);
+        m_dispatcher.registerGeneric(key, NetworkTablesValueType.BooleanArray, setter);
     }
 
     @Override
     public void publishStringProperty(String key, Supplier<String> getter, Consumer<String> setter) {
-        publishProperty(key, getter, setter, String.class);
+        m_dispatcher.registerGeneric(key, NetworkTablesValueType.String, setter);
     }
 
     @Override
     public void publishStringArrayProperty(String key, Supplier<String[]> getter, Consumer<String[]> setter) {
-        publishProperty(key, getter, setter, String[].class);
+        m_dispatcher.registerGeneric(key, NetworkTablesValueType.StringArray, setter);
     }
 
     @Override
     public void publishRawProperty(String key, Supplier<byte[]> getter, Consumer<byte[]> setter) {
-        publishProperty(key, getter, setter, byte[].class);
+        m_dispatcher.registerGeneric(key, NetworkTablesValueType.Raw, setter);
     }
 
     @Override
     public void publishIntProperty(String key, Supplier<Integer> getter, Consumer<Integer> setter) {
-        publishProperty(key, getter, setter, Integer.class);
+        if (setter != null) m_dispatcher.registerInt(key, setter::accept);
     }
 
     @Override
     public void publishFloatProperty(String key, Supplier<Float> getter, Consumer<Float> setter) {
-        publishProperty(key, getter, setter, Float.class);
+        m_dispatcher.registerGeneric(key, NetworkTablesValueType.Float, setter);
     }
 
     @Override
     public void publishIntArrayProperty(String key, Supplier<int[]> getter, Consumer<int[]> setter) {
-        publishProperty(key, getter, setter, int[].class);
+        m_dispatcher.registerGeneric(key, NetworkTablesValueType.IntArray, setter);
     }
 
     @Override
     public void publishFloatArrayProperty(String key, Supplier<float[]> getter, Consumer<float[]> setter) {
-        publishProperty(key, getter, setter, float[].class);
+        m_dispatcher.registerGeneric(key, NetworkTablesValueType.FloatArray, setter);
     }
 }
@@ -3,20 +3,55 @@ package com.frcforftc.wittydashboard;
 import androidx.annotation.NonNull;
 
 import com.arcrobotics.ftclib.command.Command;
+import com.frcforftc.wittydashboard.datalog.DataLog;
 import com.frcforftc.wittydashboard.sendables.Sendable;
+import com.frcforftc.wittydashboard.sendables.SendableBuilder;
+import com.frcforftc.wittydashboard.sendables.SendableContainer;
 import com.frcforftc.wittydashboard.sendables.ftclib.CommandSendable;
+import com.frcforftc.wittydashboard.sendables.hardware.HardwareMapSendable;
 import com.frcforftc.wittydashboard.sendables.opModeControl.OpModeSendable;
+import com.frcforftc.wittydashboard.struct.GeometryStructs;
+import com.frcforftc.wittydashboard.struct.Struct;
+import com.frcforftc.wittydashboard.topics.BooleanArrayPublisher;
+import com.frcforftc.wittydashboard.topics.BooleanArraySubscriber;
+import com.frcforftc.wittydashboard.topics.BooleanPublisher;
+import com.frcforftc.wittydashboard.topics.BooleanSubscriber;
+import com.frcforftc.wittydashboard.topics.DoubleArrayPublisher;
+import com.frcforftc.wittydashboard.topics.DoubleArraySubscriber;
+import com.frcforftc.wittydashboard.topics.DoublePublisher;
+import com.frcforftc.wittydashboard.topics.DoubleSubscriber;
+import com.frcforftc.wittydashboard.topics.FloatArrayPublisher;
+import com.frcforftc.wittydashboard.topics.FloatArraySubscriber;
+import com.frcforftc.wittydashboard.topics.FloatPublisher;
+import com.frcforftc.wittydashboard.topics.FloatSubscriber;
+import com.frcforftc.wittydashboard.topics.IngestBuffer;
+import com.frcforftc.wittydashboard.topics.IntArrayPublisher;
+import com.frcforftc.wittydashboard.topics.IntArraySubscriber;
+import com.frcforftc.wittydashboard.topics.IntPublisher;
+import com.frcforftc.wittydashboard.topics.IntSubscriber;
+import com.frcforftc.wittydashboard.topics.RawPublisher;
+import com.frcforftc.wittydashboard.topics.RawSubscriber;
+import com.frcforftc.wittydashboard.topics.StringArrayPublisher;
+import com.frcforftc.wittydashboard.topics.StringArraySubscriber;
+import com.frcforftc.wittydashboard.topics.StringPublisher;
+import com.frcforftc.wittydashboard.topics.StringSubscriber;
+import com.frcforftc.wittydashboard.topics.StructArrayPublisher;
+import com.frcforftc.wittydashboard.topics.StructPublisher;
+import com.frcforftc.wittydashboard.topics.TopicSink;
+import com.frcforftc.wittydashboard.topics.TopicSlot;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.util.RobotLog;
 
 import org.frcforftc.networktables.NetworkTablesEntry;
-import org.frcforftc.networktables.NetworkTablesEvent;
-import org.frcforftc.networktables.NetworkTablesEventListener;
 import org.frcforftc.networktables.NetworkTablesInstance;
-import org.frcforftc.networktables.NetworkTablesValue;
 import org.frcforftc.networktables.NetworkTablesValueType;
 
-import java.util.EnumSet;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -30,153 +65,766 @@ public class WittyDashboard {
     //    private static NetworkTable m_ntTable;
     private static final ConcurrentMap<String, SendableBuilderImpl> m_sendableBuilders = new ConcurrentHashMap<>();
     private static final Set<String> m_addedValues = ConcurrentHashMap.newKeySet();
+    private static final PublishScheduler m_scheduler = new PublishScheduler();
+    private static final IngestBuffer m_ingest = new IngestBuffer();
+    private static final IncomingDispatcher m_dispatcher = new IncomingDispatcher();
+    private static final ConcurrentMap<String, SendableContainer> m_containers = new ConcurrentHashMap<>();
+    private static final Set<String> m_attachedChildren = ConcurrentHashMap.newKeySet();
+    private static final Set<Runnable> m_stopHooks = ConcurrentHashMap.newKeySet();
+    private static final Set<String> m_persistentKeys = ConcurrentHashMap.newKeySet();
+    private static final TopicSink m_ntSink = new NetworkTablesSink();
+    private static final long SCHEDULER_STATS_PERIOD_MS = 1000;
+    private static final long INGEST_PERIOD_MS = 20;
+    private static final long CONTAINER_PERIOD_MS = 100;
+    private static final long CLOCK_PERIOD_MS = 1000;
     private static NetworkTablesInstance m_ntInstance;
-    private static OpModeSendable m_opModeSendable;
-    private static Thread m_runThread;
+    private static PublishScheduler.Task m_schedulerStatsTask;
+    private static PublishScheduler.Task m_ingestTask;
+    private static PublishScheduler.Task m_containerTask;
+    private static PublishScheduler.Task m_clockTask;
+    private static volatile boolean m_containersChanged = false;
+    private static int m_containerChildrenVersion;
     private static boolean m_isRunning = false;
+    private static boolean m_serverRunning = false;
+    private static long m_startNanos = System.nanoTime();
+    private static volatile DataLog m_dataLog;
 
     /**
-     * Starts the WittyDashboard with the given OpMode.
-     *
-     * @param opMode the OpMode to associate with the dashboard
-     * @see OpMode
+     * The directory of the logs written by {@link #startLogging()}.
      */
-    public static synchronized void start(OpMode opMode) {
-        m_ntInstance = NetworkTablesInstance.getDefaultInstance();
-        setOpMode(opMode);
-        m_isRunning = true;
-        m_ntInstance.startNT4Server("192.168.49.1", 5810);
+    public static final File LOG_DIRECTORY = new File("/sdcard/FIRST/WittyDashboard/logs");
 
-        m_runThread = new Thread(() -> {
-            while (m_isRunning) {
-                update();
-                try {
-                    Thread.sleep(200);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
+    /**
+     * The topic the dashboard time is published on every second, see {@link #toDashboardTimeMicros(long)}.
+     */
+    public static final String CLOCK_TOPIC = "WittyDashboard/Time (us)";
+
+    /**
+     * Starts the NetworkTables server and the publisher thread if they are not running yet.
+     * Called when the event loop is created, so the dashboard stays reachable between OpModes,
+     * and kept running until {@link #stopServer()}.
+     */
+    public static synchronized void startServer() {
+        if (m_serverRunning) return;
 
-        m_runThread.start();
+        m_ntInstance = NetworkTablesInstance.getDefaultInstance();
+        m_ntInstance.startNT4Server("192.168.49.1", 5810);
+        m_startNanos = System.nanoTime();
+
+        m_scheduler.cancel(m_ingestTask);
+        m_ingestTask = m_scheduler.schedule(() -> m_ingest.drain(m_ntSink), INGEST_PERIOD_MS);
+        m_scheduler.cancel(m_schedulerStatsTask);
+        m_schedulerStatsTask = m_scheduler.schedule(WittyDashboard::sendSchedulerStats, SCHEDULER_STATS_PERIOD_MS);
+        m_scheduler.cancel(m_containerTask);
+        m_containerTask = m_scheduler.schedule(WittyDashboard::attachChildren, CONTAINER_PERIOD_MS);
+        m_scheduler.cancel(m_clockTask);
+        m_clockTask = m_scheduler.schedule(WittyDashboard::sendClock, CLOCK_PERIOD_MS);
+        m_scheduler.start();
         if (m_ntInstance.getServer() == null) {
             throw new RuntimeException("AHHHHHHH");
         } else {
             RobotLog.vv("NetworkTables", "Server started...");
         }
+        m_serverRunning = true;
+    }
+
+    /**
+     * Starts the WittyDashboard with the given OpMode, starting the server if it is not running yet.
+     *
+     * @param opMode the OpMode to associate with the dashboard
+     * @see OpMode
+     */
+    public static synchronized void start(OpMode opMode) {
+        startServer();
+        setOpMode(opMode);
+        m_isRunning = true;
     }
 
     public static synchronized void setOpMode(OpMode opMode) {
-        if (opMode != null) m_opModeSendable = new OpModeSendable(opMode);
+        if (opMode == null) return;
+
+        OpModeSendable opModeSendable = new OpModeSendable(opMode);
+        replaceSendable("OpMode", opModeSendable);
+        if (opModeSendable.getDevices() != null) {
+            replaceSendable("HardwareMap", new HardwareMapSendable(opModeSendable.getDevices()));
+        }
     }
 
+    /**
+     * @return whether an OpMode started the dashboard and did not stop it yet
+     */
     public static boolean isRunning() {
         return m_isRunning;
     }
 
     /**
-     * Updates the dashboard with the current state of the robot.
+     * Sends the drift between the planned and the actual publish times of the scheduler,
+     * and the amount of coalesced writes of the ingest buffer
+     *
+     * @see PublishScheduler
+     * @see IngestBuffer
      */
-    private static void update() {
-        sendRobotData();
+    private static void sendSchedulerStats() {
+        putNumber("WittyDashboard/Scheduler/Average Drift (ms)", m_scheduler.getAverageDriftMs());
+        putNumber("WittyDashboard/Scheduler/Max Drift (ms)", m_scheduler.getMaxDriftMs());
+        putNumber("WittyDashboard/Ingest/Coalesced Writes", (double) m_ingest.getCoalescedWrites());
+        m_scheduler.resetDriftStats();
+
+        DataLog dataLog = m_dataLog;
+        if (dataLog != null) putNumber("WittyDashboard/Log/Dropped Records", (double) dataLog.getDroppedRecords());
     }
 
     /**
-     * Sends the robot data sendable to the network tables
+     * Starts logging every value sent to the dashboard into a new WPILOG file in {@link #LOG_DIRECTORY},
+     * named after the current date and time.
      *
-     * @see NetworkTablesInstance
-     * @see #putSendable(String, Sendable)
+     * @see #startLogging(File)
+     */
+    public static void startLogging() {
+        String name = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+        startLogging(new File(LOG_DIRECTORY, "witty_" + name + ".wpilog"));
+    }
+
+    /**
+     * Starts logging every value sent to the dashboard into a WPILOG file, replacing the current log if any.
+     * Values are logged with the time at which they were captured.
+     *
+     * @param file the log file
+     * @throws RuntimeException if the file cannot be created
+     * @see DataLog
+     */
+    public static synchronized void startLogging(@NonNull File file) {
+        stopLogging();
+        try {
+            m_dataLog = new DataLog(file, "WittyDashboard");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create the data log " + file, e);
+        }
+        // Struct values cannot be decoded from the log without their schemas, which were only sent once
+        m_ingest.resendSchemas();
+        RobotLog.vv("WittyDashboard", "Logging to " + file);
+    }
+
+    /**
+     * Stops logging and closes the log file, after everything that was buffered was written.
      */
-    private static void sendRobotData() {
-        if (m_opModeSendable != null) WittyDashboard.putSendable("OpMode", m_opModeSendable);
+    public static synchronized void stopLogging() {
+        DataLog dataLog = m_dataLog;
+        m_dataLog = null;
+        if (dataLog != null) dataLog.close();
     }
 
     /**
-     * Stops the WittyDashboard.
+     * Stops the WittyDashboard at the end of an OpMode.
+     * The stop hooks are run, and the sendables and values of the OpMode are removed and have to be put again
+     * after the next start. The server keeps running, along with the sendables put with
+     * {@link #putPersistentSendable(String, Sendable)}.
      */
     public static synchronized void stop() {
+        for (Runnable hook : m_stopHooks) {
+            m_stopHooks.remove(hook);
+            try {
+                hook.run();
+            } catch (RuntimeException e) {
+                RobotLog.ee("WittyDashboard", e, "A stop hook failed");
+            }
+        }
+
         m_isRunning = false;
-        m_runThread.interrupt();
+        synchronized (m_sendableBuilders) {
+            for (Map.Entry<String, SendableBuilderImpl> entry : m_sendableBuilders.entrySet()) {
+                String key = entry.getKey();
+                if (isPersistent(key)) continue;
+
+                m_scheduler.cancel(entry.getValue().getTask());
+                m_sendableBuilders.remove(key);
+                m_containers.remove(key);
+            }
+            m_attachedChildren.removeIf(key -> !isPersistent(key));
+        }
+        m_addedValues.clear();
+        m_dispatcher.setDeferred(false);
+        m_dispatcher.clear(WittyDashboard::isPersistent);
+        stopLogging();
+    }
+
+    /**
+     * Stops the OpMode like {@link #stop()}, then removes every sendable, stops the publisher thread and closes the server.
+     */
+    public static synchronized void stopServer() {
+        if (!m_serverRunning) return;
+
+        stop();
+        m_serverRunning = false;
+        m_scheduler.stop();
+        m_scheduler.clear();
+        synchronized (m_sendableBuilders) {
+            m_sendableBuilders.clear();
+            m_containers.clear();
+            m_attachedChildren.clear();
+            m_persistentKeys.clear();
+        }
+        m_dispatcher.clear();
         m_ntInstance.closeServer();
     }
 
+    /**
+     * Adds an action run once by the next {@link #stop()}, for resources that must not outlive the OpMode,
+     * such as the stream of a {@link com.frcforftc.wittydashboard.sendables.vision.CameraPreview}.
+     *
+     * @param hook the action
+     */
+    public static void addStopHook(@NonNull Runnable hook) {
+        m_stopHooks.add(hook);
+    }
+
+    /**
+     * Removes an action added with {@link #addStopHook(Runnable)}, for a resource that was released before the stop.
+     *
+     * @param hook the action
+     */
+    public static void removeStopHook(Runnable hook) {
+        m_stopHooks.remove(hook);
+    }
+
     /**
      * Adds a value to the NetworkTable.
-     * If provided with a sendable will automatically call the addSendable method instead
+     * If provided with a sendable will automatically call the addSendable method instead.
+     * The value is written into the ingest buffer without blocking and sent by the publisher thread on its next tick,
+     * arrays are copied so they can be reused by the caller.
+     * Numbers of any type are published as doubles, like NT4 dashboards read them, so a key can be put
+     * an integer on one call and a fraction on the next. Putting a value of another type changes the type of the key.
+     * <p>
+     * The time of the put is the capture time of the value in the data log, but NetworkTables stamps the value
+     * when the publisher thread drains it, since the NetworkTables library has no timestamped put.
+     * A client that needs capture times reads them from the log, or from a topic the sendable publishes them on,
+     * in the time base of {@link #CLOCK_TOPIC}.
      *
      * @param key   the key for the value
      * @param value the value to add * @see #addSendable(String, Sendable)
      * @see NetworkTablesEntry
      */
-    public synchronized static <T> void putGeneric(@NonNull String key, T value) {
+    public static <T> void putGeneric(@NonNull String key, T value) {
         if (value instanceof Sendable) {
             putSendable(key, (Sendable) value);
             return;
         }
 
         switch (NetworkTablesValueType.determineType(value)) {
-            case Boolean -> m_ntInstance.putBoolean(key, (boolean) value);
-            case Double -> m_ntInstance.putNumber(key, (double) value);
-            case Float -> m_ntInstance.putNumber(key, (float) value);
-            case Int -> m_ntInstance.putNumber(key, (int) value);
-            case String -> m_ntInstance.putString(key, (String) value);
-            case BooleanArray -> m_ntInstance.putBooleanArray(key, (boolean[]) value);
-            case DoubleArray -> m_ntInstance.putNumberArray(key, (double[]) value);
-            case FloatArray -> m_ntInstance.putNumberArray(key, (float[]) value);
-            case IntArray -> m_ntInstance.putNumberArray(key, (int[]) value);
-            case StringArray -> m_ntInstance.putStringArray(key, (String[]) value);
+            case Boolean -> putBoolean(key, (boolean) value);
+            case Double, Float, Int -> putNumber(key, (Number) value);
+            case String -> putString(key, (String) value);
+            case BooleanArray -> putBooleanArray(key, (boolean[]) value);
+            case DoubleArray -> putNumberArray(key, (double[]) value);
+            case FloatArray -> putNumberArray(key, (float[]) value);
+            case IntArray -> putIntegerArray(key, (int[]) value);
+            case StringArray -> putStringArray(key, (String[]) value);
         }
     }
 
-    public synchronized static void putNumber(String key, Number value) {
-        m_ntInstance.putNumber(key, value);
+    /**
+     * Puts a number, sent on the next tick and stamped by NetworkTables when it is sent, see {@link #putGeneric(String, Object)}.
+     */
+    public static void putNumber(String key, Number value) {
+        m_ingest.<DoublePublisher>putSlot(key, NetworkTablesValueType.Double).set(value.doubleValue());
     }
 
-    public synchronized static void putString(String key, String value) {
-        m_ntInstance.putString(key, value);
+    /**
+     * Puts a string, sent on the next tick and stamped by NetworkTables when it is sent, see {@link #putGeneric(String, Object)}.
+     */
+    public static void putString(String key, String value) {
+        m_ingest.<StringPublisher>putSlot(key, NetworkTablesValueType.String).set(value);
     }
 
-    public synchronized static void putBoolean(String key, boolean value) {
-        m_ntInstance.putBoolean(key, value);
+    /**
+     * Puts a boolean, sent on the next tick and stamped by NetworkTables when it is sent, see {@link #putGeneric(String, Object)}.
+     */
+    public static void putBoolean(String key, boolean value) {
+        m_ingest.<BooleanPublisher>putSlot(key, NetworkTablesValueType.Boolean).set(value);
     }
 
-    public synchronized static void putInteger(String key, int value) {
-        m_ntInstance.putNumber(key, value);
+    /**
+     * Puts an integer, as a double, sent on the next tick and stamped by NetworkTables when it is sent, see {@link #putGeneric(String, Object)}.
+     */
+    public static void putInteger(String key, int value) {
+        m_ingest.<DoublePublisher>putSlot(key, NetworkTablesValueType.Double).set(value);
     }
 
-    public synchronized static void putBooleanArray(String key, boolean[] value) {
-        m_ntInstance.putBooleanArray(key, value);
+    /**
+     * Puts a boolean array, sent on the next tick and stamped by NetworkTables when it is sent, see {@link #putGeneric(String, Object)}.
+     */
+    public static void putBooleanArray(String key, boolean[] value) {
+        m_ingest.<BooleanArrayPublisher>putSlot(key, NetworkTablesValueType.BooleanArray).set(value.clone());
     }
 
-    public synchronized static void putIntegerArray(String key, int[] value) {
-        m_ntInstance.putNumberArray(key, value);
+    /**
+     * Puts an integer array, sent on the next tick and stamped by NetworkTables when it is sent, see {@link #putGeneric(String, Object)}.
+     */
+    public static void putIntegerArray(String key, int[] value) {
+        m_ingest.<IntArrayPublisher>putSlot(key, NetworkTablesValueType.IntArray).set(value.clone());
     }
 
-    public synchronized static void putNumberArray(String key, float[] value) {
-        m_ntInstance.putNumberArray(key, value);
+    /**
+     * Puts a float array, sent on the next tick and stamped by NetworkTables when it is sent, see {@link #putGeneric(String, Object)}.
+     */
+    public static void putNumberArray(String key, float[] value) {
+        m_ingest.<FloatArrayPublisher>putSlot(key, NetworkTablesValueType.FloatArray).set(value.clone());
     }
 
-    public synchronized static void putNumberArray(String key, double[] value) {
-        m_ntInstance.putNumberArray(key, value);
+    /**
+     * Puts a double array, sent on the next tick and stamped by NetworkTables when it is sent, see {@link #putGeneric(String, Object)}.
+     */
+    public static void putNumberArray(String key, double[] value) {
+        m_ingest.<DoubleArrayPublisher>putSlot(key, NetworkTablesValueType.DoubleArray).set(value.clone());
     }
 
-    public synchronized static void putStringArray(String key, String[] value) {
-        m_ntInstance.putStringArray(key, value);
+    /**
+     * Puts a string array, sent on the next tick and stamped by NetworkTables when it is sent, see {@link #putGeneric(String, Object)}.
+     */
+    public static void putStringArray(String key, String[] value) {
+        m_ingest.<StringArrayPublisher>putSlot(key, NetworkTablesValueType.StringArray).set(value.clone());
     }
 
     public synchronized static <T> void putGeneric(@NonNull String key, T value, Consumer<T> setter, Class<T> type) {
-        putGeneric(key, value);
+        if (m_addedValues.add(key)) {
+            // The entry has to exist before its setter can be registered, so the first value is sent directly
+            announce(key, value);
+            m_dispatcher.registerGeneric(key, NetworkTablesValueType.determineType(value), setter);
+        } else {
+            putGeneric(key, value);
+        }
+    }
+
+    /**
+     * Gets a handle for publishing a boolean topic. The handle is resolved once, setting its value does no lookup.
+     *
+     * @param key the key of the topic
+     * @return the publisher of the topic
+     */
+    public static BooleanPublisher publishBoolean(@NonNull String key) {
+        return m_ingest.booleanPublisher(key);
+    }
+
+    /**
+     * Gets a handle for reading a boolean topic.
+     *
+     * @param key          the key of the topic
+     * @param defaultValue the value read while the topic does not exist
+     * @return the subscriber of the topic
+     */
+    public static BooleanSubscriber subscribeBoolean(@NonNull String key, boolean defaultValue) {
+        return new BooleanSubscriber(key, defaultValue);
+    }
+
+    /**
+     * Gets a handle for publishing a double topic. The handle is resolved once, setting its value does no lookup.
+     *
+     * @param key the key of the topic
+     * @return the publisher of the topic
+     */
+    public static DoublePublisher publishDouble(@NonNull String key) {
+        return m_ingest.doublePublisher(key);
+    }
+
+    /**
+     * Gets a handle for reading a double topic.
+     *
+     * @param key          the key of the topic
+     * @param defaultValue the value read while the topic does not exist
+     * @return the subscriber of the topic
+     */
+    public static DoubleSubscriber subscribeDouble(@NonNull String key, double defaultValue) {
+        return new DoubleSubscriber(key, defaultValue);
+    }
+
+    /**
+     * Gets a handle for publishing a float topic. The handle is resolved once, setting its value does no lookup.
+     *
+     * @param key the key of the topic
+     * @return the publisher of the topic
+     */
+    public static FloatPublisher publishFloat(@NonNull String key) {
+        return m_ingest.floatPublisher(key);
+    }
+
+    /**
+     * Gets a handle for reading a float topic.
+     *
+     * @param key          the key of the topic
+     * @param defaultValue the value read while the topic does not exist
+     * @return the subscriber of the topic
+     */
+    public static FloatSubscriber subscribeFloat(@NonNull String key, float defaultValue) {
+        return new FloatSubscriber(key, defaultValue);
+    }
+
+    /**
+     * Gets a handle for publishing an integer topic. The handle is resolved once, setting its value does no lookup.
+     *
+     * @param key the key of the topic
+     * @return the publisher of the topic
+     */
+    public static IntPublisher publishInt(@NonNull String key) {
+        return m_ingest.intPublisher(key);
+    }
+
+    /**
+     * Gets a handle for reading an integer topic.
+     *
+     * @param key          the key of the topic
+     * @param defaultValue the value read while the topic does not exist
+     * @return the subscriber of the topic
+     */
+    public static IntSubscriber subscribeInt(@NonNull String key, int defaultValue) {
+        return new IntSubscriber(key, defaultValue);
+    }
+
+    /**
+     * Gets a handle for publishing a string topic. The handle is resolved once, setting its value does no lookup.
+     *
+     * @param key the key of the topic
+     * @return the publisher of the topic
+     */
+    public static StringPublisher publishString(@NonNull String key) {
+        return m_ingest.stringPublisher(key);
+    }
+
+    /**
+     * Gets a handle for reading a string topic.
+     *
+     * @param key          the key of the topic
+     * @param defaultValue the value read while the topic does not exist
+     * @return the subscriber of the topic
+     */
+    public static StringSubscriber subscribeString(@NonNull String key, String defaultValue) {
+        return new StringSubscriber(key, defaultValue);
+    }
+
+    /**
+     * Gets a handle for publishing a raw topic. The handle is resolved once, setting its value does no lookup.
+     * <p>
+     * Raw values only reach the data log, see {@link #startLogging()}: the NetworkTables library has no put method
+     * for raw values, so the topic is never sent to the dashboard. Values set while no log is running are dropped,
+     * with a warning the first time for each key.
+     *
+     * @param key the key of the topic
+     * @return the publisher of the topic
+     */
+    public static RawPublisher publishRaw(@NonNull String key) {
+        return m_ingest.rawPublisher(key);
+    }
+
+    /**
+     * Gets a handle for reading a raw topic.
+     *
+     * @param key          the key of the topic
+     * @param defaultValue the value read while the topic does not exist
+     * @return the subscriber of the topic
+     */
+    public static RawSubscriber subscribeRaw(@NonNull String key, byte[] defaultValue) {
+        return new RawSubscriber(key, defaultValue);
+    }
+
+    /**
+     * Gets a handle for logging a struct topic, such as a {@link GeometryStructs#POSE2D pose}.
+     * The schema of the struct is logged under {@link IngestBuffer#SCHEMA_TABLE} the first time it is used.
+     * The handle is resolved once, setting its value does no lookup.
+     * <p>
+     * Struct values and their schemas only reach the data log, see {@link #startLogging()}: they are raw topics,
+     * which the NetworkTables library has no put method for, so they are never sent to the dashboard.
+     * Values set while no log is running are dropped, with a warning the first time for each key.
+     *
+     * @param key    the key of the topic
+     * @param struct the struct packing the values
+     * @return the publisher of the topic
+     */
+    public static <T> StructPublisher<T> logStruct(@NonNull String key, @NonNull Struct<T> struct) {
+        return m_ingest.structPublisher(key, struct);
+    }
+
+    /**
+     * Gets a handle for logging a struct array topic, such as a list of {@link GeometryStructs#POSE2D poses}.
+     * The schema of the struct is logged under {@link IngestBuffer#SCHEMA_TABLE} the first time it is used.
+     * The handle is resolved once, setting its value does no lookup.
+     * <p>
+     * Struct values and their schemas only reach the data log, see {@link #startLogging()}: they are raw topics,
+     * which the NetworkTables library has no put method for, so they are never sent to the dashboard.
+     * Values set while no log is running are dropped, with a warning the first time for each key.
+     *
+     * @param key    the key of the topic
+     * @param struct the struct packing the values
+     * @return the publisher of the topic
+     */
+    public static <T> StructArrayPublisher<T> logStructArray(@NonNull String key, @NonNull Struct<T> struct) {
+        return m_ingest.structArrayPublisher(key, struct);
+    }
+
+    /**
+     * Gets a handle for publishing a boolean array topic. The handle is resolved once, setting its value does no lookup.
+     *
+     * @param key the key of the topic
+     * @return the publisher of the topic
+     */
+    public static BooleanArrayPublisher publishBooleanArray(@NonNull String key) {
+        return m_ingest.booleanArrayPublisher(key);
+    }
+
+    /**
+     * Gets a handle for reading a boolean array topic.
+     *
+     * @param key          the key of the topic
+     * @param defaultValue the value read while the topic does not exist
+     * @return the subscriber of the topic
+     */
+    public static BooleanArraySubscriber subscribeBooleanArray(@NonNull String key, boolean[] defaultValue) {
+        return new BooleanArraySubscriber(key, defaultValue);
+    }
+
+    /**
+     * Gets a handle for publishing a double array topic. The handle is resolved once, setting its value does no lookup.
+     *
+     * @param key the key of the topic
+     * @return the publisher of the topic
+     */
+    public static DoubleArrayPublisher publishDoubleArray(@NonNull String key) {
+        return m_ingest.doubleArrayPublisher(key);
+    }
+
+    /**
+     * Gets a handle for reading a double array topic.
+     *
+     * @param key          the key of the topic
+     * @param defaultValue the value read while the topic does not exist
+     * @return the subscriber of the topic
+     */
+    public static DoubleArraySubscriber subscribeDoubleArray(@NonNull String key, double[] defaultValue) {
+        return new DoubleArraySubscriber(key, defaultValue);
+    }
+
+    /**
+     * Gets a handle for publishing a float array topic. The handle is resolved once, setting its value does no lookup.
+     *
+     * @param key the key of the topic
+     * @return the publisher of the topic
+     */
+    public static FloatArrayPublisher publishFloatArray(@NonNull String key) {
+        return m_ingest.floatArrayPublisher(key);
+    }
+
+    /**
+     * Gets a handle for reading a float array topic.
+     *
+     * @param key          the key of the topic
+     * @param defaultValue the value read while the topic does not exist
+     * @return the subscriber of the topic
+     */
+    public static FloatArraySubscriber subscribeFloatArray(@NonNull String key, float[] defaultValue) {
+        return new FloatArraySubscriber(key, defaultValue);
+    }
+
+    /**
+     * Gets a handle for publishing an integer array topic. The handle is resolved once, setting its value does no lookup.
+     *
+     * @param key the key of the topic
+     * @return the publisher of the topic
+     */
+    public static IntArrayPublisher publishIntArray(@NonNull String key) {
+        return m_ingest.intArrayPublisher(key);
+    }
+
+    /**
+     * Gets a handle for reading an integer array topic.
+     *
+     * @param key          the key of the topic
+     * @param defaultValue the value read while the topic does not exist
+     * @return the subscriber of the topic
+     */
+    public static IntArraySubscriber subscribeIntArray(@NonNull String key, int[] defaultValue) {
+        return new IntArraySubscriber(key, defaultValue);
+    }
+
+    /**
+     * Gets a handle for publishing a string array topic. The handle is resolved once, setting its value does no lookup.
+     *
+     * @param key the key of the topic
+     * @return the publisher of the topic
+     */
+    public static StringArrayPublisher publishStringArray(@NonNull String key) {
+        return m_ingest.stringArrayPublisher(key);
+    }
+
+    /**
+     * Gets a handle for reading a string array topic.
+     *
+     * @param key          the key of the topic
+     * @param defaultValue the value read while the topic does not exist
+     * @return the subscriber of the topic
+     */
+    public static StringArraySubscriber subscribeStringArray(@NonNull String key, String[] defaultValue) {
+        return new StringArraySubscriber(key, defaultValue);
+    }
+
+    /**
+     * Gets a handle for publishing a topic of the given type, replacing the topic if it was published with another type,
+     * like the put methods do. Handles previously resolved for the replaced topic are no longer sent.
+     *
+     * @param key  the key of the topic
+     * @param type the type of the values that will be published
+     * @return the publisher of the topic, whose class matches the type
+     */
+    public static <S extends TopicSlot> S publishReplacing(@NonNull String key, @NonNull NetworkTablesValueType type) {
+        return m_ingest.putSlot(key, type);
+    }
 
-        if (!m_sendableBuilders.containsKey(key)) {
-            m_sendableBuilders.put(key, null);
+    /**
+     * Sets whether the setters of values changed from the dashboard run on the thread calling
+     * {@link #processIncoming()}, instead of the NetworkTables thread.
+     * When deferred, the updates are queued and coalesced to the latest value per topic until they are processed.
+     *
+     * @param deferred true to defer the setters to {@link #processIncoming()}
+     * @see com.frcforftc.wittydashboard.util.WittyOpMode
+     */
+    public static void setDeferIncoming(boolean deferred) {
+        m_dispatcher.setDeferred(deferred);
+    }
 
-            NetworkTablesInstance.getDefaultInstance().get(key)
-                    .addListener(new NetworkTablesEventListener(EnumSet.of(NetworkTablesEvent.kTopicUpdated), (NetworkTablesEvent e) -> {
-                        NetworkTablesValue networkTablesValue = NetworkTablesInstance.getDefaultInstance().get(key).getValue();
-                        if (type.isInstance(networkTablesValue.get())) {
-                            setter.accept(type.cast(networkTablesValue.get()));
-                        }
-                    }));
+    /**
+     * Runs the setters of the values changed from the dashboard since the last call, on the calling thread.
+     * Should be called once per loop iteration when incoming values are deferred, {@link com.frcforftc.wittydashboard.util.WittyOpMode} does so automatically.
+     *
+     * @see #setDeferIncoming(boolean)
+     */
+    public static void processIncoming() {
+        m_dispatcher.processIncoming();
+    }
+
+    /**
+     * @return the amount of put calls whose value was replaced by a newer put before it was sent
+     * @see IngestBuffer
+     */
+    public static long getCoalescedWrites() {
+        return m_ingest.getCoalescedWrites();
+    }
+
+    /**
+     * Sends a value to the NetworkTable directly, without going through the ingest buffer.
+     * Used for the first value of a topic with a setter, which has to exist before the setter is registered.
+     *
+     * @param key   the key for the value
+     * @param value the value to send
+     */
+    private static void announce(String key, Object value) {
+        if (value == null) return;
+
+        long now = System.nanoTime();
+        NetworkTablesValueType type = NetworkTablesValueType.determineType(value);
+        switch (type) {
+            case Boolean -> m_ntSink.putBoolean(key, (boolean) value, now);
+            case Double -> m_ntSink.putDouble(key, (double) value, now);
+            case Float -> m_ntSink.putFloat(key, (float) value, now);
+            case Int -> m_ntSink.putInt(key, (int) value, now);
+            default -> m_ntSink.putObject(key, type, value, now);
+        }
+    }
+
+    /**
+     * Maps a capture time to the time base of the dashboard, which counts microseconds since {@link #start(OpMode)}.
+     * <p>
+     * This is not the time base of the NT4 server: the NetworkTables library neither exposes the server's epoch
+     * nor accepts a timestamp with a value, it stamps values itself when they are put.
+     * The dashboard time is published on {@link #CLOCK_TOPIC} instead, so a client can compute the offset between
+     * the two time bases from the server timestamp of that topic's values, and map dashboard times to server times.
+     *
+     * @param timestampNanos a {@link System#nanoTime()} value
+     * @return the matching dashboard time in microseconds
+     */
+    public static long toDashboardTimeMicros(long timestampNanos) {
+        return (timestampNanos - m_startNanos) / 1000;
+    }
+
+    /**
+     * Publishes the current dashboard time, put directly instead of through the ingest buffer,
+     * so the server stamps it as close as possible to the time it holds.
+     *
+     * @see #toDashboardTimeMicros(long)
+     */
+    private static void sendClock() {
+        long now = System.nanoTime();
+        m_ntSink.putDouble(CLOCK_TOPIC, (double) toDashboardTimeMicros(now), now);
+    }
+
+    /**
+     * Sends the drained values into the NetworkTables instance, and into the data log while logging.
+     * The NetworkTables library stamps values itself when they are put, so the capture times are only kept by the log.
+     */
+    private static final class NetworkTablesSink implements TopicSink {
+        private final Set<String> m_droppedRawKeys = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void putBoolean(String key, boolean value, long timestampNanos) {
+            m_ntInstance.putBoolean(key, value);
+            DataLog dataLog = m_dataLog;
+            if (dataLog != null) dataLog.putBoolean(key, value, timestampNanos);
+        }
+
+        @Override
+        public void putDouble(String key, double value, long timestampNanos) {
+            m_ntInstance.putNumber(key, value);
+            DataLog dataLog = m_dataLog;
+            if (dataLog != null) dataLog.putDouble(key, value, timestampNanos);
+        }
+
+        @Override
+        public void putFloat(String key, float value, long timestampNanos) {
+            m_ntInstance.putNumber(key, value);
+            DataLog dataLog = m_dataLog;
+            if (dataLog != null) dataLog.putFloat(key, value, timestampNanos);
+        }
+
+        @Override
+        public void putInt(String key, int value, long timestampNanos) {
+            m_ntInstance.putNumber(key, value);
+            DataLog dataLog = m_dataLog;
+            if (dataLog != null) dataLog.putInt(key, value, timestampNanos);
+        }
+
+        @Override
+        public void putObject(String key, NetworkTablesValueType type, Object value, long timestampNanos) {
+            DataLog dataLog = m_dataLog;
+            if (dataLog != null) {
+                dataLog.putObject(key, type, value, timestampNanos);
+            } else if (type == NetworkTablesValueType.Raw) {
+                warnDroppedRaw(key);
+            }
+
+            switch (type) {
+                case String -> m_ntInstance.putString(key, (String) value);
+                case BooleanArray -> m_ntInstance.putBooleanArray(key, (boolean[]) value);
+                case DoubleArray -> m_ntInstance.putNumberArray(key, (double[]) value);
+                case FloatArray -> m_ntInstance.putNumberArray(key, (float[]) value);
+                case IntArray -> m_ntInstance.putNumberArray(key, (int[]) value);
+                case StringArray -> m_ntInstance.putStringArray(key, (String[]) value);
+            }
+        }
+
+        /**
+         * The NetworkTables library has no put method for raw values, so raw and struct topics are only logged.
+         */
+        @Override
+        public void putRaw(String key, String typeString, byte[] value, long timestampNanos) {
+            DataLog dataLog = m_dataLog;
+            if (dataLog != null) {
+                dataLog.putRaw(key, typeString, value, timestampNanos);
+            } else if (!key.startsWith(IngestBuffer.SCHEMA_TABLE)) {
+                // Schemas are sent again when a log starts
+                warnDroppedRaw(key);
+            }
+        }
+
+        private void warnDroppedRaw(String key) {
+            if (m_droppedRawKeys.add(key)) {
+                RobotLog.ww("WittyDashboard", String.format("Dropped a value of %s: raw and struct topics are only sent to the data log, and no log is running", key));
+            }
         }
     }
 
@@ -197,21 +845,165 @@ public class WittyDashboard {
 
     /**
      * Adds a Sendable to the NetworkTable.
+     * The sendable is posted by the publisher thread at its own update period, so it only needs to be put once.
+     * The first sendable put under a key is kept: putting another sendable under the same key does nothing,
+     * so a loop calling {@code putSendable(key, new X())} still builds and schedules a single builder.
+     * Use {@link #replaceSendable(String, Sendable)} to swap the sendable of a key.
      *
      * @param key      the key for the Sendable
      * @param sendable the Sendable to add * @see Sendable
+     * @see SendableBuilder#setUpdatePeriod(long)
      */
     public static void putSendable(@NonNull String key, Sendable sendable) {
-        SendableBuilderImpl impl;
-        if (m_sendableBuilders.containsKey(key)) {
-            impl = m_sendableBuilders.get(key);
+        if (m_sendableBuilders.containsKey(key)) return;
+
+        synchronized (m_sendableBuilders) {
+            if (m_sendableBuilders.containsKey(key)) return;
+            addSendable(key, sendable);
+        }
+    }
+
+    /**
+     * Adds a Sendable that stays posted across OpModes, such as the OpMode controls put when the event loop is created.
+     * Unlike the sendables put with {@link #putSendable(String, Sendable)}, it is not removed by {@link #stop()},
+     * and neither are the children of a persistent container nor the setters of their properties.
+     *
+     * @param key      the key for the Sendable
+     * @param sendable the Sendable to add
+     */
+    public static void putPersistentSendable(@NonNull String key, Sendable sendable) {
+        m_persistentKeys.add(key);
+        putSendable(key, sendable);
+    }
+
+    /**
+     * @return whether a sendable or topic key is, or is under, the key of a persistent sendable
+     */
+    private static boolean isPersistent(String key) {
+        for (String persistentKey : m_persistentKeys) {
+            if (key.equals(persistentKey) || key.startsWith(persistentKey + "/")) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the Sendable posted under a key, e.g. the sendable of a new OpMode.
+     * Unlike {@link #putSendable(String, Sendable)}, a different sendable cancels the builder of the previous one,
+     * and runs {@link Sendable#initSendable(SendableBuilder)} and schedules a new builder.
+     * Meant to be called when the sendable changes, not on every loop.
+     *
+     * @param key      the key for the Sendable
+     * @param sendable the Sendable to post under the key
+     */
+    public static void replaceSendable(@NonNull String key, Sendable sendable) {
+        synchronized (m_sendableBuilders) {
+            SendableBuilderImpl impl = m_sendableBuilders.get(key);
+            if (impl != null && impl.getSendable() == sendable) return;
+            if (impl != null) {
+                m_scheduler.cancel(impl.getTask());
+                if (impl.getSendable() instanceof SendableContainer) detachChildren(key);
+            }
+
+            addSendable(key, sendable);
+        }
+    }
+
+    /**
+     * Builds and schedules the builder of a sendable, must be called while holding the lock of the builders.
+     */
+    private static void addSendable(String key, Sendable sendable) {
+        SendableBuilderImpl newImpl = new SendableBuilderImpl(sendable, m_dispatcher, m_scheduler);
+        newImpl.setTask(m_scheduler.schedule(() -> newImpl.post(key, m_ntSink), newImpl.getUpdatePeriod()));
+        m_sendableBuilders.put(key, newImpl);
+
+        if (sendable instanceof SendableContainer) {
+            m_containers.put(key, (SendableContainer) sendable);
         } else {
-            impl = new SendableBuilderImpl(sendable);
-            m_sendableBuilders.put(key, impl);
+            m_containers.remove(key);
+        }
+        m_containersChanged = true;
+    }
+
+    /**
+     * Stops posting the children of a replaced container, the children of the new container are attached instead.
+     *
+     * @param key the key of the container
+     */
+    private static void detachChildren(String key) {
+        String prefix = key + "/";
+        for (String childKey : m_attachedChildren) {
+            if (!childKey.startsWith(prefix)) continue;
+
+            SendableBuilderImpl child = m_sendableBuilders.remove(childKey);
+            if (child != null) m_scheduler.cancel(child.getTask());
+            m_attachedChildren.remove(childKey);
+        }
+    }
+
+    /**
+     * Stops posting the children a container no longer lists, e.g. the command of an OpMode that was unregistered.
+     *
+     * @param key   the key of the container
+     * @param names the current names of its children
+     */
+    private static void detachRemovedChildren(String key, String[] names) {
+        String prefix = key + "/";
+        synchronized (m_sendableBuilders) {
+            for (String childKey : m_attachedChildren) {
+                if (!childKey.startsWith(prefix) || isChildKey(childKey, prefix, names)) continue;
+
+                SendableBuilderImpl child = m_sendableBuilders.remove(childKey);
+                if (child != null) {
+                    m_scheduler.cancel(child.getTask());
+                    if (child.getSendable() instanceof SendableContainer) {
+                        detachChildren(childKey);
+                        m_containers.remove(childKey);
+                    }
+                }
+                m_attachedChildren.remove(childKey);
+            }
         }
+    }
 
-        if (impl != null)
-            impl.post(key, WittyDashboard::putGeneric);
+    /**
+     * @return whether a key is the key of one of the named children, or of a child nested under one of them
+     */
+    private static boolean isChildKey(String childKey, String prefix, String[] names) {
+        for (String name : names) {
+            if (childKey.length() == prefix.length() + name.length() && childKey.endsWith(name)) return true;
+            if (childKey.startsWith(prefix + name + "/")) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Puts the children of the containers that were not attached yet, and detaches the ones that were removed.
+     * Only does any work when the containers or their children changed.
+     *
+     * @see SendableContainer
+     */
+    private static void attachChildren() {
+        int childrenVersion = 0;
+        for (SendableContainer container : m_containers.values()) {
+            childrenVersion = 31 * childrenVersion + container.getChildrenVersion();
+        }
+        if (!m_containersChanged && childrenVersion == m_containerChildrenVersion) return;
+
+        m_containersChanged = false;
+        m_containerChildrenVersion = childrenVersion;
+        for (Map.Entry<String, SendableContainer> entry : m_containers.entrySet()) {
+            SendableContainer container = entry.getValue();
+            String[] names = container.getChildNames();
+            detachRemovedChildren(entry.getKey(), names);
+            for (String name : names) {
+                String childKey = entry.getKey() + "/" + name;
+                if (m_attachedChildren.contains(childKey)) continue;
+
+                Sendable child = container.getChild(name);
+                if (child != null) putSendable(childKey, child);
+                m_attachedChildren.add(childKey);
+            }
+        }
     }
 
     public void putCommand(String key, Command command) {
@@ -7,6 +7,10 @@ import android.view.Menu;
 import androidx.annotation.NonNull;
 
 import com.frcforftc.wittydashboard.WittyDashboard;
+import com.frcforftc.wittydashboard.sendables.opModeControl.OpModeCatalog;
+import com.frcforftc.wittydashboard.sendables.opModeControl.OpModeControlSendable;
+import com.frcforftc.wittydashboard.sendables.opModeControl.OpModeLifecycle;
+import com.frcforftc.wittydashboard.sendables.opModeControl.OpModeRegistrarSendable;
 import com.qualcomm.ftccommon.FtcEventLoop;
 import com.qualcomm.robotcore.eventloop.opmode.AnnotatedOpModeManager;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
@@ -31,14 +35,17 @@ public class WittyDashboardHooks implements OpModeManagerNotifier.Notifications
 
     @Override
     public void onOpModePreInit(OpMode opMode) {
+        OpModeLifecycle.onTransition(OpModeLifecycle.State.INIT, opModeManager.getActiveOpModeName());
     }
 
     @Override
     public void onOpModePreStart(OpMode opMode) {
+        OpModeLifecycle.onTransition(OpModeLifecycle.State.RUNNING, opModeManager.getActiveOpModeName());
     }
 
     @Override
     public void onOpModePostStop(OpMode opMode) {
+        OpModeLifecycle.onTransition(OpModeLifecycle.State.STOPPED, opModeManager.getActiveOpModeName());
     }
 
     /**
@@ -49,20 +56,12 @@ public class WittyDashboardHooks implements OpModeManagerNotifier.Notifications
          * Sinister's scanning looks for instances to work with. In kotlin, this is an object class, in Java we need to re-create that by hand.
          */
         private static final AppHook APP_HOOK = new AppHook();
-        private Thread m_runThread;
 
         private AppHook() {
         }
 
         @Override
         public void onCreate(@NonNull Context context) {
-//            m_runThread = new Thread(() -> {
-//                WittyDashboard.start(null);
-//                RobotLog.vv("WittyDashboard", "Started server...");
-//            });
-
-
-//            m_runThread.start();
         }
 
         @Override
@@ -75,6 +74,10 @@ public class WittyDashboardHooks implements OpModeManagerNotifier.Notifications
             WittyDashboardHooks.INSTANCE.opModeManager = opModeManager;
             opModeManager.registerListener(WittyDashboardHooks.INSTANCE);
 
+            // The server and the OpMode controls outlive the OpModes, so OpModes can be run from the dashboard
+            WittyDashboard.startServer();
+            WittyDashboard.putPersistentSendable("OpModeControl", new OpModeControlSendable());
+            WittyDashboard.putPersistentSendable("OpModeRegistrar", new OpModeRegistrarSendable());
             WittyDashboard.setOpMode(opModeManager.getActiveOpMode());
         }
 
@@ -84,16 +87,15 @@ public class WittyDashboardHooks implements OpModeManagerNotifier.Notifications
 
         @Override
         public void onDestroy(@NonNull Context context) {
-            m_runThread.interrupt();
-
-            if (WittyDashboard.isRunning())
-                WittyDashboard.stop();
+            WittyDashboard.stopServer();
 
             RobotLog.vv("WittyDashboard", "Stopped server...");
         }
 
         @Override
         public void registerOpModes(@NonNull AnnotatedOpModeManager opModeManager) {
+            // Called on every registration, including after an OnBotJava build
+            OpModeCatalog.refresh();
         }
 
         @Override
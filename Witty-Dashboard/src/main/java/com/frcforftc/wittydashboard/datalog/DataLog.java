@@ -0,0 +1,436 @@
+package com.frcforftc.wittydashboard.datalog;
+
+import com.frcforftc.wittydashboard.topics.TopicSink;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes every value sent through it to a WPILOG file, which can be opened in AdvantageScope.
+ * <p>
+ * Records are encoded into a preallocated direct buffer by the thread sending the values, and a background
+ * thread writes the filled buffer to the file while the other one is being filled. The writer commits every
+ * {@link #COMMIT_PERIOD_MS}, or earlier once a buffer is half full, so many records share a single write and sync.
+ * Sending a value never waits for the disk: when both buffers are full the record is dropped and counted.
+ * Timestamps are the microseconds since the log was opened.
+ */
+public final class DataLog implements TopicSink, Closeable {
+    /**
+     * The size of each of the two record buffers.
+     */
+    public static final int BUFFER_SIZE = 256 * 1024;
+    /**
+     * The longest time a record waits in the buffer before it is written.
+     */
+    public static final long COMMIT_PERIOD_MS = 250;
+
+    private static final byte[] MAGIC = "WPILOG".getBytes(StandardCharsets.US_ASCII);
+    private static final short VERSION = 0x0100;
+    private static final int CONTROL_START = 0;
+    private static final int CONTROL_FINISH = 1;
+
+    private final FileChannel m_channel;
+    private final long m_startNanos;
+    private final Map<String, Entry> m_entries = new HashMap<>();
+    private final Thread m_writer;
+    private ByteBuffer m_active = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer m_spare = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private volatile boolean m_closed = false;
+    private long m_droppedRecords = 0;
+    private int m_lastEntry = 0;
+
+    private static final class Entry {
+        private final int m_id;
+        private final String m_type;
+
+        private Entry(int id, String type) {
+            this.m_id = id;
+            this.m_type = type;
+        }
+    }
+
+    /**
+     * Creates the log file and starts its writer thread.
+     *
+     * @param file        the file to write, replaced if it exists
+     * @param extraHeader a free-form string stored in the file header
+     * @throws IOException if the file cannot be created
+     */
+    public DataLog(File file, String extraHeader) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Failed to create " + parent);
+        }
+
+        m_channel = new FileOutputStream(file).getChannel();
+        m_startNanos = System.nanoTime();
+
+        byte[] extra = extraHeader.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length + 2 + 4 + extra.length).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC).putShort(VERSION).putInt(extra.length).put(extra).flip();
+        while (header.hasRemaining()) {
+            m_channel.write(header);
+        }
+
+        m_writer = new Thread(this::runWriter, "WittyDashboard DataLog");
+        m_writer.setDaemon(true);
+        m_writer.start();
+    }
+
+    /**
+     * @return the amount of records dropped because the writer could not keep up
+     */
+    public synchronized long getDroppedRecords() {
+        return m_droppedRecords;
+    }
+
+    @Override
+    public synchronized void putBoolean(String key, boolean value, long timestampNanos) {
+        int entry = getEntry(key, NetworkTablesValueType.Boolean, timestampNanos);
+        if (entry > 0 && beginRecord(entry, 1, timestampNanos)) {
+            m_active.put((byte) (value ? 1 : 0));
+            endRecord();
+        }
+    }
+
+    @Override
+    public synchronized void putDouble(String key, double value, long timestampNanos) {
+        int entry = getEntry(key, NetworkTablesValueType.Double, timestampNanos);
+        if (entry > 0 && beginRecord(entry, 8, timestampNanos)) {
+            m_active.putDouble(value);
+            endRecord();
+        }
+    }
+
+    @Override
+    public synchronized void putFloat(String key, float value, long timestampNanos) {
+        int entry = getEntry(key, NetworkTablesValueType.Float, timestampNanos);
+        if (entry > 0 && beginRecord(entry, 4, timestampNanos)) {
+            m_active.putFloat(value);
+            endRecord();
+        }
+    }
+
+    @Override
+    public synchronized void putInt(String key, int value, long timestampNanos) {
+        int entry = getEntry(key, NetworkTablesValueType.Int, timestampNanos);
+        if (entry > 0 && beginRecord(entry, 8, timestampNanos)) {
+            m_active.putLong(value);
+            endRecord();
+        }
+    }
+
+    @Override
+    public synchronized void putObject(String key, NetworkTablesValueType type, Object value, long timestampNanos) {
+        int entry = getEntry(key, type, timestampNanos);
+        if (entry <= 0) return;
+
+        switch (type) {
+            case String -> {
+                String string = (String) value;
+                if (beginRecord(entry, utf8Length(string), timestampNanos)) {
+                    putUtf8(m_active, string);
+                    endRecord();
+                }
+            }
+            case Raw -> {
+                byte[] bytes = (byte[]) value;
+                if (beginRecord(entry, bytes.length, timestampNanos)) {
+                    m_active.put(bytes);
+                    endRecord();
+                }
+            }
+            case BooleanArray -> {
+                boolean[] array = (boolean[]) value;
+                if (beginRecord(entry, array.length, timestampNanos)) {
+                    for (boolean element : array) m_active.put((byte) (element ? 1 : 0));
+                    endRecord();
+                }
+            }
+            case DoubleArray -> {
+                double[] array = (double[]) value;
+                if (beginRecord(entry, array.length * 8, timestampNanos)) {
+                    for (double element : array) m_active.putDouble(element);
+                    endRecord();
+                }
+            }
+            case FloatArray -> {
+                float[] array = (float[]) value;
+                if (beginRecord(entry, array.length * 4, timestampNanos)) {
+                    for (float element : array) m_active.putFloat(element);
+                    endRecord();
+                }
+            }
+            case IntArray -> {
+                int[] array = (int[]) value;
+                if (beginRecord(entry, array.length * 8, timestampNanos)) {
+                    for (int element : array) m_active.putLong(element);
+                    endRecord();
+                }
+            }
+            case StringArray -> {
+                String[] array = (String[]) value;
+                int size = 4;
+                for (String element : array) size += 4 + utf8Length(element);
+                if (beginRecord(entry, size, timestampNanos)) {
+                    m_active.putInt(array.length);
+                    for (String element : array) {
+                        m_active.putInt(utf8Length(element));
+                        putUtf8(m_active, element);
+                    }
+                    endRecord();
+                }
+            }
+        }
+    }
+
+    /**
+     * Logs raw bytes under their own type string, so structs are logged with the type that describes their layout.
+     */
+    @Override
+    public synchronized void putRaw(String key, String typeString, byte[] value, long timestampNanos) {
+        int entry = getEntry(key, typeString, timestampNanos);
+        if (entry > 0 && beginRecord(entry, value.length, timestampNanos)) {
+            m_active.put(value);
+            endRecord();
+        }
+    }
+
+    /**
+     * Stops the writer after it wrote everything that was buffered, and closes the file.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (m_closed) return;
+            m_closed = true;
+            notifyAll();
+        }
+
+        try {
+            m_writer.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            m_channel.close();
+        } catch (IOException e) {
+            RobotLog.ee("WittyDashboard", e, "Failed to close the data log");
+        }
+    }
+
+    /**
+     * Gets the entry id of a key, starting the entry on its first use.
+     * When the key is sent with another type than its entry has, the entry is finished and a new one is started.
+     *
+     * @return the entry id, or 0 if the log is closed or the start record did not fit
+     */
+    private int getEntry(String key, NetworkTablesValueType type, long timestampNanos) {
+        return getEntry(key, typeString(type), timestampNanos);
+    }
+
+    private int getEntry(String key, String typeString, long timestampNanos) {
+        if (m_closed) return 0;
+
+        Entry entry = m_entries.get(key);
+        if (entry != null && entry.m_type.equals(typeString)) return entry.m_id;
+
+        if (typeString == null) return 0;
+
+        if (entry != null) {
+            if (!beginRecord(0, 1 + 4, timestampNanos)) return 0;
+            m_active.put((byte) CONTROL_FINISH);
+            m_active.putInt(entry.m_id);
+            endRecord();
+            m_entries.remove(key);
+        }
+
+        int newEntry = m_lastEntry + 1;
+        int size = 1 + 4 + 4 + utf8Length(key) + 4 + utf8Length(typeString) + 4;
+        if (!beginRecord(0, size, timestampNanos)) return 0;
+
+        m_active.put((byte) CONTROL_START);
+        m_active.putInt(newEntry);
+        m_active.putInt(utf8Length(key));
+        putUtf8(m_active, key);
+        m_active.putInt(utf8Length(typeString));
+        putUtf8(m_active, typeString);
+        m_active.putInt(0); // No metadata
+        endRecord();
+
+        m_lastEntry = newEntry;
+        m_entries.put(key, new Entry(newEntry, typeString));
+        return newEntry;
+    }
+
+    /**
+     * Writes the header of a record if the whole record fits into the active buffer.
+     * The header holds the lengths of the entry id, payload size and timestamp fields, followed by the fields themselves.
+     *
+     * @return false if the record was dropped
+     */
+    private boolean beginRecord(int entry, int payloadSize, long timestampNanos) {
+        long timestamp = Math.max(0, (timestampNanos - m_startNanos) / 1000);
+        int entryLength = byteLength(entry & 0xFFFFFFFFL, 4);
+        int sizeLength = byteLength(payloadSize & 0xFFFFFFFFL, 4);
+        int timestampLength = byteLength(timestamp, 8);
+
+        if (m_active.remaining() < 1 + entryLength + sizeLength + timestampLength + payloadSize) {
+            m_droppedRecords++;
+            notifyAll();
+            return false;
+        }
+
+        m_active.put((byte) ((entryLength - 1) | ((sizeLength - 1) << 2) | ((timestampLength - 1) << 4)));
+        putVarLength(m_active, entry, entryLength);
+        putVarLength(m_active, payloadSize, sizeLength);
+        putVarLength(m_active, timestamp, timestampLength);
+        return true;
+    }
+
+    private void endRecord() {
+        if (m_active.position() >= BUFFER_SIZE / 2) {
+            notifyAll();
+        }
+    }
+
+    private void runWriter() {
+        long commitNanos = TimeUnit.MILLISECONDS.toNanos(COMMIT_PERIOD_MS);
+        while (true) {
+            ByteBuffer filled;
+            boolean closed;
+            synchronized (this) {
+                long deadline = System.nanoTime() + commitNanos;
+                long remaining;
+                while (!m_closed && m_active.position() < BUFFER_SIZE / 2 && (remaining = deadline - System.nanoTime()) > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    } catch (InterruptedException e) {
+                        m_closed = true;
+                    }
+                }
+
+                closed = m_closed;
+                filled = m_active;
+                m_active = m_spare;
+                m_spare = null;
+            }
+
+            try {
+                filled.flip();
+                boolean hadData = filled.hasRemaining();
+                while (filled.hasRemaining()) {
+                    m_channel.write(filled);
+                }
+                if (hadData) m_channel.force(false);
+            } catch (IOException e) {
+                RobotLog.ee("WittyDashboard", e, "Failed to write the data log");
+            }
+            filled.clear();
+
+            synchronized (this) {
+                m_spare = filled;
+            }
+
+            // No record is appended once closed, so the last swapped buffer held everything
+            if (closed) return;
+        }
+    }
+
+    private static String typeString(NetworkTablesValueType type) {
+        return switch (type) {
+            case Boolean -> "boolean";
+            case Double -> "double";
+            case Float -> "float";
+            case Int -> "int64";
+            case String -> "string";
+            case Raw -> "raw";
+            case BooleanArray -> "boolean[]";
+            case DoubleArray -> "double[]";
+            case FloatArray -> "float[]";
+            case IntArray -> "int64[]";
+            case StringArray -> "string[]";
+            default -> null;
+        };
+    }
+
+    /**
+     * @return the amount of bytes needed to store an unsigned value, at least 1 and at most max
+     */
+    private static int byteLength(long value, int max) {
+        int length = 1;
+        while (length < max && (value >>> (length * 8)) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static void putVarLength(ByteBuffer buffer, long value, int length) {
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) (value >>> (i * 8)));
+        }
+    }
+
+    /**
+     * @return the length of a string encoded as UTF-8, computed without encoding it
+     */
+    static int utf8Length(String string) {
+        int length = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < string.length() && Character.isLowSurrogate(string.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encodes a string as UTF-8 straight into the buffer, without allocating a byte array.
+     * Unpaired surrogates are encoded as the 3 byte replacement character, matching {@link #utf8Length(String)}.
+     */
+    static void putUtf8(ByteBuffer buffer, String string) {
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < string.length() && Character.isLowSurrogate(string.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, string.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // 3 bytes, like any other char of the basic plane
+                buffer.put((byte) 0xEF).put((byte) 0xBF).put((byte) 0xBD);
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.frcforftc.wittydashboard.datalog;
+
+import org.frcforftc.networktables.NetworkTablesInstance;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams a WPILOG file, such as the ones written by {@link DataLog}, into a NetworkTables instance.
+ * <p>
+ * The file is memory-mapped and scanned once when the replay is opened, building an index of the offset and
+ * timestamp of every data record. Seeking is then a binary search over that index, and playing reads the records
+ * straight from the mapping. Records are paced by their original timestamps, at real time, at a multiple of it,
+ * or as fast as possible. The NetworkTables library stamps values itself when they are put, so the original
+ * timestamps only drive the pacing. Integers are put as doubles, as the dashboard publishes every number,
+ * which keeps them exact up to 2^53.
+ */
+public final class LogReplay implements Closeable {
+    /**
+     * The speed that replays without waiting between records.
+     */
+    public static final double AS_FAST_AS_POSSIBLE = 0;
+
+    private static final int CONTROL_START = 0;
+
+    private final RandomAccessFile m_file;
+    private final MappedByteBuffer m_mapping;
+    private final Map<Integer, Entry> m_entries = new HashMap<>();
+    private final int[] m_offsets;
+    private final long[] m_timestamps;
+    private final int m_recordCount;
+
+    private volatile double m_speed = 1;
+    private volatile int m_position = 0;
+    private volatile int m_seekRequest = -1;
+    private volatile boolean m_running = false;
+    private volatile int m_failedRecords = 0;
+    private volatile Thread m_thread;
+
+    private static final class Entry {
+        private final String m_name;
+        private final String m_type;
+
+        private Entry(String name, String type) {
+            this.m_name = name;
+            this.m_type = type;
+        }
+    }
+
+    /**
+     * Maps and indexes a log file.
+     *
+     * @param file the log file
+     * @throws IOException if the file cannot be read or is not a WPILOG file
+     */
+    public LogReplay(File file) throws IOException {
+        m_file = new RandomAccessFile(file, "r");
+        m_mapping = m_file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, m_file.length());
+        m_mapping.order(ByteOrder.LITTLE_ENDIAN);
+
+        ByteBuffer buffer = m_mapping.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < 12 || buffer.get() != 'W' || buffer.get() != 'P' || buffer.get() != 'I'
+                || buffer.get() != 'L' || buffer.get() != 'O' || buffer.get() != 'G') {
+            close();
+            throw new IOException(file + " is not a WPILOG file");
+        }
+        buffer.getShort(); // Version
+        int extraHeaderLength = buffer.getInt();
+        buffer.position(buffer.position() + extraHeaderLength);
+
+        int[] offsets = new int[1024];
+        long[] timestamps = new long[1024];
+        int count = 0;
+        while (buffer.remaining() > 0) {
+            int offset = buffer.position();
+            int header = buffer.get() & 0xFF;
+            if (buffer.remaining() < (header & 0x3) + ((header >> 2) & 0x3) + ((header >> 4) & 0x7) + 3) break;
+
+            int entry = (int) getVarLength(buffer, (header & 0x3) + 1);
+            int size = (int) getVarLength(buffer, ((header >> 2) & 0x3) + 1);
+            long timestamp = getVarLength(buffer, ((header >> 4) & 0x7) + 1);
+            if (size < 0 || buffer.remaining() < size) break; // Truncated record at the end of the file
+
+            int payload = buffer.position();
+            if (entry == 0) {
+                readControl(buffer);
+            } else {
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                    timestamps = Arrays.copyOf(timestamps, count * 2);
+                }
+                offsets[count] = offset;
+                timestamps[count] = timestamp;
+                count++;
+            }
+            buffer.position(payload + size);
+        }
+
+        m_offsets = offsets;
+        m_timestamps = timestamps;
+        m_recordCount = count;
+    }
+
+    /**
+     * @return the amount of data records in the log
+     */
+    public int getRecordCount() {
+        return m_recordCount;
+    }
+
+    /**
+     * @return the timestamp of the first data record in microseconds
+     */
+    public long getStartMicros() {
+        return m_recordCount == 0 ? 0 : m_timestamps[0];
+    }
+
+    /**
+     * @return the timestamp of the last data record in microseconds
+     */
+    public long getEndMicros() {
+        return m_recordCount == 0 ? 0 : m_timestamps[m_recordCount - 1];
+    }
+
+    /**
+     * @return the amount of records skipped because their payload did not match their type
+     */
+    public int getFailedRecords() {
+        return m_failedRecords;
+    }
+
+    /**
+     * Sets the playback speed.
+     *
+     * @param speed the multiple of real time, or {@link #AS_FAST_AS_POSSIBLE}
+     */
+    public void setSpeed(double speed) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Invalid speed: " + speed);
+        }
+        m_speed = speed;
+        wake();
+    }
+
+    /**
+     * Moves the playback to the first record at or after the given time.
+     *
+     * @param timestampMicros the time in the log, in microseconds
+     */
+    public void seek(long timestampMicros) {
+        int index = Arrays.binarySearch(m_timestamps, 0, m_recordCount, timestampMicros);
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            // Several records can share a timestamp, start at the first one
+            while (index > 0 && m_timestamps[index - 1] == timestampMicros) index--;
+        }
+
+        if (m_running) {
+            m_seekRequest = index;
+            wake();
+        } else {
+            m_position = index;
+        }
+    }
+
+    /**
+     * Wakes the replay thread if it is waiting for the next record, so a seek or a speed change applies right away.
+     */
+    private void wake() {
+        Thread thread = m_thread;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    /**
+     * Starts streaming the records from the current position into the instance, on a background thread.
+     *
+     * @param instance the instance to put the values into
+     */
+    public synchronized void start(NetworkTablesInstance instance) {
+        if (m_running) return;
+
+        m_running = true;
+        m_thread = new Thread(() -> run(instance), "WittyDashboard Replay");
+        m_thread.setDaemon(true);
+        m_thread.start();
+    }
+
+    /**
+     * Stops the replay and waits for the replay thread to finish, so no record is put after this returns
+     * and a following {@link #start(NetworkTablesInstance)} does not run alongside the old thread.
+     */
+    public synchronized void stop() {
+        m_running = false;
+        Thread thread = m_thread;
+        if (thread == null) return;
+
+        m_thread = null;
+        thread.interrupt();
+        if (thread == Thread.currentThread()) return;
+
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    public boolean isRunning() {
+        return m_running;
+    }
+
+    @Override
+    public void close() throws IOException {
+        stop();
+        m_file.close();
+    }
+
+    private void run(NetworkTablesInstance instance) {
+        ByteBuffer buffer = m_mapping.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        long wallStart = System.nanoTime();
+        long logStart = m_position < m_recordCount ? m_timestamps[m_position] : 0;
+        double speed = m_speed;
+
+        while (m_running && m_position < m_recordCount) {
+            int seekRequest = m_seekRequest;
+            if (seekRequest >= 0) {
+                m_seekRequest = -1;
+                m_position = seekRequest;
+                if (m_position >= m_recordCount) break;
+            }
+
+            // Restart the pacing after a seek or a speed change
+            if (seekRequest >= 0 || speed != m_speed) {
+                speed = m_speed;
+                wallStart = System.nanoTime();
+                logStart = m_timestamps[m_position];
+            }
+
+            if (speed != AS_FAST_AS_POSSIBLE) {
+                long target = wallStart + (long) ((m_timestamps[m_position] - logStart) * 1000 / speed);
+                long delay = target - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                    // Woken early by a seek, a speed change or stop
+                    if (System.nanoTime() - target < 0) continue;
+                }
+            }
+
+            try {
+                putRecord(instance, buffer, m_offsets[m_position]);
+            } catch (RuntimeException e) {
+                // A malformed payload, the record is skipped
+                m_failedRecords++;
+            }
+            m_position++;
+        }
+
+        m_running = false;
+    }
+
+    private void putRecord(NetworkTablesInstance instance, ByteBuffer buffer, int offset) {
+        buffer.position(offset);
+        int header = buffer.get() & 0xFF;
+        Entry entry = m_entries.get((int) getVarLength(buffer, (header & 0x3) + 1));
+        int size = (int) getVarLength(buffer, ((header >> 2) & 0x3) + 1);
+        getVarLength(buffer, ((header >> 4) & 0x7) + 1);
+        if (entry == null) return;
+
+        String key = entry.m_name;
+        switch (entry.m_type) {
+            case "boolean" -> instance.putBoolean(key, buffer.get() != 0);
+            case "double" -> instance.putNumber(key, buffer.getDouble());
+            case "float" -> instance.putNumber(key, buffer.getFloat());
+            case "int64" -> instance.putNumber(key, (double) buffer.getLong());
+            case "string", "json" -> instance.putString(key, getString(buffer, size));
+            case "boolean[]" -> {
+                boolean[] array = new boolean[size];
+                for (int i = 0; i < array.length; i++) array[i] = buffer.get() != 0;
+                instance.putBooleanArray(key, array);
+            }
+            case "double[]" -> {
+                double[] array = new double[size / 8];
+                for (int i = 0; i < array.length; i++) array[i] = buffer.getDouble();
+                instance.putNumberArray(key, array);
+            }
+            case "float[]" -> {
+                float[] array = new float[size / 4];
+                for (int i = 0; i < array.length; i++) array[i] = buffer.getFloat();
+                instance.putNumberArray(key, array);
+            }
+            case "int64[]" -> {
+                double[] array = new double[size / 8];
+                for (int i = 0; i < array.length; i++) array[i] = buffer.getLong();
+                instance.putNumberArray(key, array);
+            }
+            case "string[]" -> {
+                String[] array = new String[buffer.getInt()];
+                for (int i = 0; i < array.length; i++) array[i] = getString(buffer, buffer.getInt());
+                instance.putStringArray(key, array);
+            }
+            default -> {
+                // Raw and struct values have no put method in the NetworkTables library
+            }
+        }
+    }
+
+    private void readControl(ByteBuffer buffer) {
+        if (buffer.get() != CONTROL_START) return;
+
+        int id = buffer.getInt();
+        String name = getString(buffer, buffer.getInt());
+        String type = getString(buffer, buffer.getInt());
+        m_entries.put(id, new Entry(name, type));
+    }
+
+    private static String getString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long getVarLength(ByteBuffer buffer, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value |= (buffer.get() & 0xFFL) << (i * 8);
+        }
+        return value;
+    }
+
+    /**
+     * Replays a log into a local NT4 server, for reproducing a match without the robot.
+     * Usage: {@code LogReplay <file> [speed]}, a speed of 0 replays as fast as possible.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: LogReplay <file> [speed]");
+            return;
+        }
+
+        NetworkTablesInstance instance = NetworkTablesInstance.getDefaultInstance();
+        instance.startNT4Server("0.0.0.0", 5810);
+
+        try (LogReplay replay = new LogReplay(new File(args[0]))) {
+            if (args.length > 1) replay.setSpeed(Double.parseDouble(args[1]));
+
+            replay.start(instance);
+            while (replay.isRunning()) {
+                Thread.sleep(100);
+            }
+        } finally {
+            instance.closeServer();
+        }
+    }
+}
@@ -2,35 +2,56 @@ package com.frcforftc.wittydashboard.sendables;
 
 import com.arcrobotics.ftclib.geometry.Pose2d;
 import com.arcrobotics.ftclib.geometry.Rotation2d;
-import com.arcrobotics.ftclib.geometry.Translation2d;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * The Field2d class represents a 2D field with a robot position.
  * It implements the Sendable interface to allow for data sending.
+ * <p>
+ * Every object is published as a double array of {@code [x, y, heading in degrees]} per pose.
+ * Objects can be added at any time with {@link #getOrCreateObject(String)}, and are published once they exist.
+ * Planned paths should be added with {@link #getTrajectory(String)} instead, so that they are only sent
+ * when their poses change and do not take from the budget of the robot pose, which is sent every update.
  */
 public class Field2d implements Sendable {
-    List<FieldObject2d> m_objects = new ArrayList<>();
+    private final Object m_lock = new Object();
+    private volatile FieldObject2d[] m_objects = new FieldObject2d[0];
+    private volatile int m_version = 0;
 
     public Field2d() {
-        FieldObject2d obj = new FieldObject2d("Robot");
-        obj.setPose(new Pose2d(0, 0, Rotation2d.fromDegrees(0)));
-        m_objects.add(obj);
+        getOrCreateObject("Robot").setPose(0, 0, Rotation2d.fromDegrees(0));
     }
 
-    public synchronized Pose2d getRobotPose() {
-        return m_objects.get(0).getPose();
+    public Pose2d getRobotPose() {
+        return getRobotObject().getPose();
     }
 
-    public synchronized void setRobotPose(Pose2d pose) {
-        m_objects.get(0).setPose(pose);
+    public void setRobotPose(Pose2d pose) {
+        getRobotObject().setPose(pose);
     }
 
-    public synchronized Optional<FieldObject2d> getObject(String name) {
+    public void setRobotPose(double x, double y, Rotation2d rotation) {
+        getRobotObject().setPose(x, y, rotation);
+    }
+
+    /**
+     * @return the object of the robot pose
+     */
+    public FieldObject2d getRobotObject() {
+        return m_objects[0];
+    }
+
+    /**
+     * Gets an object or trajectory that was added to the field.
+     *
+     * @param name the name of the object
+     * @return the object, or empty if the field has no object with that name
+     */
+    public Optional<FieldObject2d> getObject(String name) {
         for (FieldObject2d obj : m_objects) {
             if (obj.m_name.equals(name)) {
                 return Optional.of(obj);
@@ -39,60 +60,226 @@ public class Field2d implements Sendable {
         return Optional.empty();
     }
 
+    /**
+     * Gets an object, adding it to the field if it does not exist yet.
+     *
+     * @param name the name of the object
+     * @return the object
+     * @throws IllegalArgumentException if a trajectory has that name
+     */
+    public FieldObject2d getOrCreateObject(String name) {
+        return getOrCreateObject(name, false);
+    }
+
+    /**
+     * Gets a trajectory, adding it to the field if it does not exist yet.
+     * A trajectory is an object whose poses are sent once, and again only when their content changes,
+     * which makes it suited for paths of hundreds of poses. Setting the same poses again sends nothing.
+     * Its last value is sent again to the clients that subscribe later.
+     *
+     * @param name the name of the trajectory
+     * @return the trajectory
+     * @throws IllegalArgumentException if an object that is not a trajectory has that name
+     */
+    public FieldObject2d getTrajectory(String name) {
+        return getOrCreateObject(name, true);
+    }
+
+    private FieldObject2d getOrCreateObject(String name, boolean trajectory) {
+        for (FieldObject2d obj : m_objects) {
+            if (obj.m_name.equals(name)) {
+                return checkKind(obj, trajectory);
+            }
+        }
+
+        synchronized (m_lock) {
+            FieldObject2d[] objects = m_objects;
+            for (FieldObject2d obj : objects) {
+                if (obj.m_name.equals(name)) {
+                    return checkKind(obj, trajectory);
+                }
+            }
+
+            FieldObject2d obj = new FieldObject2d(name, trajectory);
+            objects = Arrays.copyOf(objects, objects.length + 1);
+            objects[objects.length - 1] = obj;
+            m_objects = objects;
+            m_version++;
+            return obj;
+        }
+    }
+
+    private static FieldObject2d checkKind(FieldObject2d obj, boolean trajectory) {
+        if (obj.m_trajectory != trajectory) {
+            throw new IllegalArgumentException(String.format("%s is %s trajectory", obj.m_name, obj.m_trajectory ? "a" : "not a"));
+        }
+        return obj;
+    }
+
     @Override
     public void initSendable(SendableBuilder builder) {
         builder.setSmartDashboardType("Field2d");
+        builder.setUpdatePeriod(20);
+        builder.setPropertiesUpdater(() -> m_version, this::addObjectProperties);
+        addObjectProperties(builder);
+    }
 
+    private void addObjectProperties(SendableBuilder builder) {
         for (FieldObject2d obj : m_objects) {
-            builder.addDoubleArrayProperty(obj.m_name, obj::getAsDoubleArray, null);
+            if (!builder.hasProperty(obj.m_name)) {
+                builder.addDoubleArrayProperty(obj.m_name, obj::getAsDoubleArray, null);
+                if (obj.m_trajectory) builder.setRetained(obj.m_name, () -> obj.m_contentVersion);
+            }
         }
     }
 
+    /**
+     * An object on the field, holding any amount of poses.
+     * The poses are stored as primitives, so setting them does not allocate while the amount of poses stays the same.
+     * They are copied into a new array when they are sent after being set, since the sent array is handed to
+     * NetworkTables and must not change afterwards. Sending unchanged poses reuses the last array.
+     * The poses of a trajectory are hashed when they are set, and only copied and sent when the hash changed.
+     */
     public static class FieldObject2d {
         final String m_name;
-        private final List<Pose2d> m_poses = new ArrayList<>();
+        final boolean m_trajectory;
+        private double[] m_poses = new double[3];
+        private int m_length = 0;
+        private boolean m_dirty = false;
+        private double[] m_sent = new double[0];
+        private int m_hash = 1;
+        volatile int m_contentVersion = 0;
 
-        public FieldObject2d(String name) {
+        FieldObject2d(String name, boolean trajectory) {
             m_name = name;
+            m_trajectory = trajectory;
+        }
+
+        public String getName() {
+            return m_name;
         }
 
-        public Pose2d getPose() {
-            if (m_poses.isEmpty()) {
+        /**
+         * @return whether the object is a trajectory, sent only when its poses change
+         * @see Field2d#getTrajectory(String)
+         */
+        public boolean isTrajectory() {
+            return m_trajectory;
+        }
+
+        public synchronized Pose2d getPose() {
+            if (m_length == 0) {
                 return new Pose2d(0, 0, Rotation2d.fromDegrees(0));
             }
-            return m_poses.get(0);
+            return new Pose2d(m_poses[0], m_poses[1], Rotation2d.fromDegrees(m_poses[2]));
         }
 
-        public synchronized void setPose(Pose2d pose) {
-            setPoses(pose);
+        public void setPose(Pose2d pose) {
+            setPose(pose.getX(), pose.getY(), pose.getRotation());
         }
 
-        public List<Pose2d> getPoses() {
-            return new ArrayList<>(m_poses);
+        public synchronized void setPose(double x, double y, Rotation2d rotation) {
+            m_length = 0;
+            appendPose(x, y, rotation.getDegrees());
+            onPosesSet();
+        }
+
+        public synchronized List<Pose2d> getPoses() {
+            List<Pose2d> poses = new ArrayList<>(m_length / 3);
+            for (int i = 0; i < m_length; i += 3) {
+                poses.add(new Pose2d(m_poses[i], m_poses[i + 1], Rotation2d.fromDegrees(m_poses[i + 2])));
+            }
+            return poses;
         }
 
         public synchronized void setPoses(List<Pose2d> poses) {
-            m_poses.clear();
-            m_poses.addAll(poses);
+            m_length = 0;
+            for (int i = 0; i < poses.size(); i++) {
+                Pose2d pose = poses.get(i);
+                appendPose(pose.getX(), pose.getY(), pose.getRotation().getDegrees());
+            }
+            onPosesSet();
         }
 
         public synchronized void setPoses(Pose2d... poses) {
-            m_poses.clear();
-            Collections.addAll(m_poses, poses);
-        }
-
-        public double[] getAsDoubleArray() {
-            double[] arr = new double[m_poses.size() * 3];
-            int ndx = 0;
-            for (Pose2d pose : m_poses) {
-                Translation2d translation = pose.getTranslation();
-                arr[ndx] = translation.getX();
-                arr[ndx + 1] = translation.getX();
-                arr[ndx + 2] = translation.getX();
-                ndx += 3;
+            m_length = 0;
+            for (Pose2d pose : poses) {
+                appendPose(pose.getX(), pose.getY(), pose.getRotation().getDegrees());
+            }
+            onPosesSet();
+        }
+
+        /**
+         * Sets the poses from a packed array, without creating a pose object per pose.
+         *
+         * @param poses  the poses as {@code [x, y, heading in degrees]} triplets
+         * @param length the amount of values to read, a multiple of 3
+         */
+        public synchronized void setPoses(double[] poses, int length) {
+            if (length % 3 != 0) {
+                throw new IllegalArgumentException("The length of packed poses must be a multiple of 3: " + length);
+            }
+
+            ensureCapacity(length);
+            System.arraycopy(poses, 0, m_poses, 0, length);
+            m_length = length;
+            onPosesSet();
+        }
+
+        /**
+         * @return the amount of poses of the object
+         */
+        public synchronized int getPoseCount() {
+            return m_length / 3;
+        }
+
+        /**
+         * Marks the poses to be copied on the next send. A trajectory only bumps its content version,
+         * which makes it be sent, when the hash of its poses changed.
+         */
+        private void onPosesSet() {
+            if (m_trajectory) {
+                int hash = 31 + m_length;
+                for (int i = 0; i < m_length; i++) {
+                    long bits = Double.doubleToLongBits(m_poses[i]);
+                    hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+                }
+                if (hash == m_hash) return;
+
+                m_hash = hash;
+                m_contentVersion++;
+            }
+
+            m_dirty = true;
+        }
+
+        private void appendPose(double x, double y, double headingDegrees) {
+            ensureCapacity(m_length + 3);
+            m_poses[m_length] = x;
+            m_poses[m_length + 1] = y;
+            m_poses[m_length + 2] = headingDegrees;
+            m_length += 3;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (m_poses.length < capacity) {
+                m_poses = Arrays.copyOf(m_poses, Math.max(capacity, m_poses.length * 2));
+            }
+        }
+
+        /**
+         * Gets the poses packed as {@code [x, y, heading in degrees]} triplets.
+         * The returned array is never modified, it is returned again by the next calls until the poses are set.
+         *
+         * @return the packed poses
+         */
+        public synchronized double[] getAsDoubleArray() {
+            if (m_dirty) {
+                m_sent = Arrays.copyOf(m_poses, m_length);
+                m_dirty = false;
             }
 
-            return arr;
+            return m_sent;
         }
     }
 }
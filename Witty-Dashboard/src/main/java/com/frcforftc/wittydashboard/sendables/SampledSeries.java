@@ -0,0 +1,172 @@
+package com.frcforftc.wittydashboard.sendables;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Records a value at a higher rate than it is published, and sends all the samples gathered
+ * since the last post as a single packed array of {@code [t0, v0, t1, v1, ...]}, where the timestamps
+ * are the seconds since the series was created.
+ * <p>
+ * Samples are kept in a primitive ring buffer, so recording allocates nothing. When more samples are
+ * recorded between two posts than the buffer holds, the oldest ones are dropped and counted.
+ * Values are recorded either by calling {@link #record(double)} from the loop, or by a sampler thread
+ * started with {@link #startSampling(DoubleSupplier, long)}, but not both at once.
+ */
+public class SampledSeries implements Sendable {
+    /**
+     * The default capacity of the ring buffer, enough for 500 ms at 1 kHz.
+     */
+    public static final int DEFAULT_CAPACITY = 512;
+    /**
+     * The default publish period of the series.
+     */
+    public static final long DEFAULT_PUBLISH_PERIOD_MS = 100;
+
+    private final long m_startNanos = System.nanoTime();
+    private final int m_mask;
+    private final long[] m_timestamps;
+    private final double[] m_values;
+    private final AtomicLong m_writeIndex = new AtomicLong();
+    private long m_readIndex = 0;
+    private int m_droppedSamples = 0;
+    private Thread m_sampler;
+
+    public SampledSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the amount of samples kept between two posts, rounded up to a power of two
+     */
+    public SampledSeries(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+
+        m_mask = size - 1;
+        m_timestamps = new long[size];
+        m_values = new double[size];
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("SampledSeries");
+        builder.setUpdatePeriod(DEFAULT_PUBLISH_PERIOD_MS);
+        builder.addDoubleArrayProperty("Samples", this::drainSamples, null);
+        builder.addPrimitiveIntProperty("Dropped Samples", () -> m_droppedSamples, null);
+    }
+
+    /**
+     * Records a value with the current time.
+     *
+     * @param value the value
+     */
+    public void record(double value) {
+        record(System.nanoTime(), value);
+    }
+
+    /**
+     * Records a value measured at the given time.
+     *
+     * @param timestampNanos the {@link System#nanoTime()} at which the value was measured
+     * @param value          the value
+     */
+    public void record(long timestampNanos, double value) {
+        long index = m_writeIndex.get();
+        int slot = (int) index & m_mask;
+        m_timestamps[slot] = timestampNanos;
+        m_values[slot] = value;
+        // Publishes the slot to the reader
+        m_writeIndex.lazySet(index + 1);
+    }
+
+    /**
+     * Starts a daemon thread recording the value of a supplier once every period.
+     *
+     * @param supplier the sampled value
+     * @param periodMs the sampling period in milliseconds
+     */
+    public synchronized void startSampling(DoubleSupplier supplier, long periodMs) {
+        stopSampling();
+
+        long periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMs);
+        m_sampler = new Thread(() -> {
+            long deadline = System.nanoTime();
+            while (!Thread.currentThread().isInterrupted()) {
+                record(supplier.getAsDouble());
+
+                deadline += periodNanos;
+                long delay = deadline - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                } else {
+                    // Fell behind, skip the missed samples instead of bursting
+                    deadline = System.nanoTime();
+                }
+            }
+        }, "WittyDashboard Sampler");
+        m_sampler.setDaemon(true);
+        m_sampler.start();
+    }
+
+    public synchronized void stopSampling() {
+        if (m_sampler != null) {
+            m_sampler.interrupt();
+            m_sampler = null;
+        }
+    }
+
+    /**
+     * @return the amount of samples dropped because the buffer was full
+     */
+    public int getDroppedSamples() {
+        return m_droppedSamples;
+    }
+
+    /**
+     * Takes the samples recorded since the last call, packed as timestamp and value pairs.
+     * Samples the writer overwrote while they were copied are discarded and counted as dropped.
+     *
+     * @return the packed samples, or null if nothing was recorded
+     */
+    public synchronized double[] drainSamples() {
+        long writeIndex = m_writeIndex.get();
+        long readIndex = m_readIndex;
+        int capacity = m_mask + 1;
+        if (writeIndex - readIndex > capacity) {
+            m_droppedSamples += (int) (writeIndex - readIndex - capacity);
+            readIndex = writeIndex - capacity;
+        }
+
+        int count = (int) (writeIndex - readIndex);
+        if (count == 0) return null;
+
+        double[] packed = new double[count * 2];
+        for (int i = 0; i < count; i++) {
+            int slot = (int) (readIndex + i) & m_mask;
+            packed[2 * i] = (m_timestamps[slot] - m_startNanos) / 1e9;
+            packed[2 * i + 1] = m_values[slot];
+        }
+
+        // The writer may have lapped the reader during the copy, the overwritten samples are not valid
+        long overwritten = m_writeIndex.get() - capacity - readIndex;
+        m_readIndex = writeIndex;
+        if (overwritten > 0) {
+            int skipped = (int) Math.min(overwritten, count);
+            m_droppedSamples += skipped;
+            if (skipped == count) return null;
+
+            double[] valid = new double[(count - skipped) * 2];
+            System.arraycopy(packed, skipped * 2, valid, 0, valid.length);
+            return valid;
+        }
+
+        return packed;
+    }
+}
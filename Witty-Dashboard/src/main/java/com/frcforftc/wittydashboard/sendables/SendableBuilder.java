@@ -1,12 +1,19 @@
 package com.frcforftc.wittydashboard.sendables;
 
+import com.frcforftc.wittydashboard.topics.TopicSink;
+
 import org.frcforftc.networktables.AnnounceMethod;
-import org.frcforftc.networktables.NetworkTablesValue;
 import org.frcforftc.networktables.NetworkTablesValueType;
 
-import java.util.HashMap;
-import java.util.Objects;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 
 /**
@@ -14,9 +21,56 @@ import java.util.function.Supplier;
  * to a network table.
  */
 public abstract class SendableBuilder {
-    private final HashMap<String, NetworkTablesValue> properties = new HashMap<>();
+    /**
+     * The default time after which an unchanged property is sent again.
+     */
+    public static final long DEFAULT_KEEP_ALIVE_MS = 1000;
+    /**
+     * The default update period of a sendable.
+     */
+    public static final long DEFAULT_PERIOD_MS = 200;
+    /**
+     * An update period that sends the value a single time.
+     */
+    public static final long PERIOD_ONCE = -1;
+    /**
+     * The period at which retained properties are sent again, since a client that connects later
+     * cannot be detected and would otherwise never receive them.
+     */
+    public static final long RETAINED_RESEND_MS = 5000;
+
+    private final LinkedHashMap<String, SendableProperty> properties = new LinkedHashMap<>();
     private final Sendable sendable;
     private String m_type;
+    private PublishMode m_publishMode = PublishMode.ON_CHANGE;
+    private long m_keepAliveNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_KEEP_ALIVE_MS);
+    private long m_periodNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_PERIOD_MS);
+    private boolean m_typeSent = false;
+    private long m_typeSentNanos;
+    private String m_compiledKey;
+    private SendableProperty[] m_compiledProperties;
+    private String[] m_compiledTopics;
+    private String m_compiledTypeTopic;
+    private AnnounceMethodSink m_announceSink;
+    private Runnable m_updateTable;
+    private IntSupplier m_propertiesVersion;
+    private Consumer<SendableBuilder> m_propertiesUpdater;
+    private int m_lastPropertiesVersion;
+
+    /**
+     * Controls which property values are sent when the builder is posted.
+     */
+    public enum PublishMode {
+        /**
+         * Every property is sent on every post.
+         */
+        ALWAYS,
+        /**
+         * Only properties whose value changed since they were last sent are posted,
+         * unchanged ones are re-sent once every keep-alive period.
+         */
+        ON_CHANGE
+    }
 
 
     public SendableBuilder(Sendable sendable) {
@@ -34,6 +88,151 @@ public abstract class SendableBuilder {
         this.m_type = type;
     }
 
+    /**
+     * Sets the publish mode used when posting this builder's properties.
+     *
+     * @param publishMode the publish mode
+     * @see PublishMode
+     */
+    public void setPublishMode(PublishMode publishMode) {
+        this.m_publishMode = publishMode;
+    }
+
+    /**
+     * Sets the period after which an unchanged property is sent again in {@link PublishMode#ON_CHANGE} mode.
+     *
+     * @param keepAliveMs the keep-alive period in milliseconds
+     */
+    public void setKeepAlivePeriod(long keepAliveMs) {
+        this.m_keepAliveNanos = TimeUnit.MILLISECONDS.toNanos(keepAliveMs);
+    }
+
+    /**
+     * Sets the update period of the properties of this builder that do not declare a period of their own.
+     *
+     * @param periodMs the update period in milliseconds
+     */
+    public void setUpdatePeriod(long periodMs) {
+        if (periodMs <= 0) {
+            throw new IllegalArgumentException("The update period of a sendable must be positive");
+        }
+
+        this.m_periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMs);
+    }
+
+    /**
+     * Sets the update period of a single property, overriding the period of the builder.
+     * Should be called after the property was added.
+     *
+     * @param key      the key of the property
+     * @param periodMs the update period in milliseconds, or {@link #PERIOD_ONCE} to send the value a single time
+     */
+    public void setUpdatePeriod(String key, long periodMs) {
+        SendableProperty property = properties.get(key);
+        if (property == null) {
+            throw new IllegalArgumentException(String.format("No property named %s", key));
+        }
+        if (periodMs == 0 || periodMs < PERIOD_ONCE) {
+            throw new IllegalArgumentException("The update period of a property must be positive or PERIOD_ONCE");
+        }
+
+        property.m_periodNanos = periodMs == PERIOD_ONCE ? PERIOD_ONCE : TimeUnit.MILLISECONDS.toNanos(periodMs);
+    }
+
+    /**
+     * Makes a property retained, for large values that rarely change such as a planned path.
+     * A retained property is sent once, then again only when its content version changes,
+     * regardless of the update period and of the keep-alive period, and every {@link #RETAINED_RESEND_MS}
+     * so clients that connect later still receive it.
+     * Should be called after the property was added.
+     *
+     * @param key            the key of the property
+     * @param contentVersion a counter the sendable increments when the content of the property changed
+     */
+    public void setRetained(String key, IntSupplier contentVersion) {
+        SendableProperty property = properties.get(key);
+        if (property == null) {
+            throw new IllegalArgumentException(String.format("No property named %s", key));
+        }
+
+        property.m_periodNanos = PERIOD_ONCE;
+        property.m_contentVersion = contentVersion;
+    }
+
+    /**
+     * Makes the setter of a property run on the NetworkTables thread as soon as a value arrives,
+     * even while incoming values are deferred to the loop, for requests that have to be handled without an OpMode.
+     * The setter must be thread safe. Should be called after the property was added.
+     *
+     * @param key the key of the property
+     * @see com.frcforftc.wittydashboard.WittyDashboard#setDeferIncoming(boolean)
+     */
+    public void setImmediate(String key) {
+        SendableProperty property = properties.get(key);
+        if (property == null) {
+            throw new IllegalArgumentException(String.format("No property named %s", key));
+        }
+
+        property.m_immediate = true;
+    }
+
+    /**
+     * Requests a post as soon as possible instead of at the next update period, for sendables reporting events
+     * that clients wait on. Can be called from any thread, the post still runs on the posting thread.
+     * Does nothing for a builder that is not posted by the dashboard.
+     */
+    public void requestPost() {
+    }
+
+    /**
+     * Gets the period at which this builder needs to be posted, the shortest period among its properties.
+     *
+     * @return the update period in milliseconds
+     */
+    public long getUpdatePeriod() {
+        long periodNanos = m_periodNanos;
+        for (SendableProperty property : properties.values()) {
+            if (property.m_periodNanos > 0) {
+                periodNanos = Math.min(periodNanos, property.m_periodNanos);
+            }
+        }
+
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(periodNanos));
+    }
+
+    /**
+     * Sets a function called on the posting thread right before every post, before any property is sampled.
+     * Lets a sendable refresh the state its getters read once per post instead of once per getter.
+     *
+     * @param updateTable the function, or null to remove it
+     */
+    public void setUpdateTable(Runnable updateTable) {
+        this.m_updateTable = updateTable;
+    }
+
+    /**
+     * Lets the sendable add properties after it was initialized, for sendables whose properties appear at runtime.
+     * Whenever the version changes, the updater is called on the posting thread right before the post,
+     * and adds the properties that appeared since. Properties that were already added keep their state.
+     *
+     * @param version a counter the sendable increments when it has new properties
+     * @param updater adds the new properties to the builder
+     * @see #hasProperty(String)
+     */
+    public void setPropertiesUpdater(IntSupplier version, Consumer<SendableBuilder> updater) {
+        this.m_propertiesVersion = version;
+        this.m_propertiesUpdater = updater;
+        this.m_lastPropertiesVersion = version.getAsInt();
+    }
+
+    /**
+     * @param key the key of the property
+     * @return whether a property was added with that key
+     */
+    public boolean hasProperty(String key) {
+        return properties.containsKey(key);
+    }
+
     /**
      * Adds a double property to be managed by this builder.
      *
@@ -155,6 +354,39 @@ public abstract class SendableBuilder {
         addProperty(key, NetworkTablesValueType.FloatArray, getter, setter);
     }
 
+    /**
+     * Adds a double property to be managed by this builder, sampled without boxing.
+     *
+     * @param key    the key for the property
+     * @param getter a supplier that provides the current value of the property
+     * @param setter a consumer that sets the value of the property
+     */
+    public void addPrimitiveDoubleProperty(String key, DoubleSupplier getter, DoubleConsumer setter) {
+        putProperty(key, new SendableProperty.DoubleProperty(getter, setter));
+    }
+
+    /**
+     * Adds an integer property to be managed by this builder, sampled without boxing.
+     *
+     * @param key    the key for the property
+     * @param getter a supplier that provides the current value of the property
+     * @param setter a consumer that sets the value of the property
+     */
+    public void addPrimitiveIntProperty(String key, IntSupplier getter, IntConsumer setter) {
+        putProperty(key, new SendableProperty.IntProperty(getter, setter));
+    }
+
+    /**
+     * Adds a boolean property to be managed by this builder, sampled without boxing.
+     *
+     * @param key    the key for the property
+     * @param getter a supplier that provides the current value of the property
+     * @param setter a consumer that sets the value of the property
+     */
+    public void addPrimitiveBooleanProperty(String key, BooleanSupplier getter, Consumer<Boolean> setter) {
+        putProperty(key, new SendableProperty.BooleanProperty(getter, setter));
+    }
+
     /**
      * Adds a property to be managed by this builder.
      *
@@ -165,22 +397,34 @@ public abstract class SendableBuilder {
      * @param <T>    the type of the property value
      */
     private <T> void addProperty(String key, NetworkTablesValueType type, Supplier<T> getter, Consumer<T> setter) {
-        NetworkTablesValue value = new NetworkTablesValue(getter, setter, type);
+        putProperty(key, new SendableProperty(type, getter, setter));
+    }
+
+    /**
+     * Stores a property, keeping the update period of a property it replaces.
+     *
+     * @param key      the key for the property
+     * @param property the property
+     */
+    private void putProperty(String key, SendableProperty property) {
+        SendableProperty containedValue = properties.get(key);
+        if (containedValue != null && containedValue.m_type != property.m_type) {
+            throw new RuntimeException(String.format("Non matching types for topic %s (%s and %s)", key, property.m_type.typeString, containedValue.m_type.typeString));
+        }
 
-        NetworkTablesValue containedValue = properties.get(key);
-        if (containedValue != null && !Objects.equals(containedValue.getType(), type.typeString)) {
-            throw new RuntimeException(String.format("Non matching types for topic %s (%s and %s)", key, type.typeString, containedValue.getType()));
-        } else {
-            containedValue = value;
+        if (containedValue != null) {
+            property.m_periodNanos = containedValue.m_periodNanos;
+            property.m_contentVersion = containedValue.m_contentVersion;
         }
 
-        properties.put(key, containedValue);
+        properties.put(key, property);
+        m_compiledKey = null;
     }
 
     /**
      * Publishes a double property.
      *
-     * @param key    the key for the property
+     * @param key    the full key of the property's topic
      * @param getter a supplier that provides the current value of the property
      * @param setter a consumer that sets the value of the property
      */
@@ -189,7 +433,7 @@ public abstract class SendableBuilder {
     /**
      * Publishes a double array property.
      *
-     * @param key    the key for the property
+     * @param key    the full key of the property's topic
      * @param getter a supplier that provides the current value of the property
      * @param setter a consumer that sets the value of the property
      */
@@ -198,7 +442,7 @@ public abstract class SendableBuilder {
     /**
      * Publishes a boolean property.
      *
-     * @param key    the key for the property
+     * @param key    the full key of the property's topic
      * @param getter a supplier that provides the current value of the property
      * @param setter a consumer that sets the value of the property
      */
@@ -207,7 +451,7 @@ public abstract class SendableBuilder {
     /**
      * Publishes a boolean array property.
      *
-     * @param key    the key for the property
+     * @param key    the full key of the property's topic
      * @param getter a supplier that provides the current value of the property
      * @param setter a consumer that sets the value of the property
      */
@@ -216,7 +460,7 @@ public abstract class SendableBuilder {
     /**
      * Publishes a string property.
      *
-     * @param key    the key for the property
+     * @param key    the full key of the property's topic
      * @param getter a supplier that provides the current value of the property
      * @param setter a consumer that sets the value of the property
      */
@@ -225,16 +469,17 @@ public abstract class SendableBuilder {
     /**
      * Publishes a string array property.
      *
-     * @param key    the key for the property
+     * @param key    the full key of the property's topic
      * @param getter a supplier that provides the current value of the property
      * @param setter a consumer that sets the value of the property
      */
     public abstract void publishStringArrayProperty(String key, Supplier<String[]> getter, Consumer<String[]> setter);
 
     /**
-     * Publishes a raw property.
+     * Publishes a raw property. The NetworkTables library has no put method for raw values,
+     * so the values of raw properties only reach the data log.
      *
-     * @param key    the key for the property
+     * @param key    the full key of the property's topic
      * @param getter a supplier that provides the current value of the property
      * @param setter a consumer that sets the value of the property
      */
@@ -243,7 +488,7 @@ public abstract class SendableBuilder {
     /**
      * Publishes an integer property.
      *
-     * @param key    the key for the property
+     * @param key    the full key of the property's topic
      * @param getter a supplier that provides the current value of the property
      * @param setter a consumer that sets the value of the property
      */
@@ -252,7 +497,7 @@ public abstract class SendableBuilder {
     /**
      * Publishes a float property.
      *
-     * @param key    the key for the property
+     * @param key    the full key of the property's topic
      * @param getter a supplier that provides the current value of the property
      * @param setter a consumer that sets the value of the property
      */
@@ -261,7 +506,7 @@ public abstract class SendableBuilder {
     /**
      * Publishes an integer array property.
      *
-     * @param key    the key for the property
+     * @param key    the full key of the property's topic
      * @param getter a supplier that provides the current value of the property
      * @param setter a consumer that sets the value of the property
      */
@@ -270,58 +515,218 @@ public abstract class SendableBuilder {
     /**
      * Publishes a float array property.
      *
-     * @param key    the key for the property
+     * @param key    the full key of the property's topic
      * @param getter a supplier that provides the current value of the property
      * @param setter a consumer that sets the value of the property
      */
     public abstract void publishFloatArrayProperty(String key, Supplier<float[]> getter, Consumer<float[]> setter);
 
+    /**
+     * Publishes the setter of a property added with {@link #addPrimitiveDoubleProperty}.
+     * Boxes the values into {@link #publishDoubleProperty} by default, builders that can pass primitive values
+     * to the setter override it.
+     *
+     * @param key    the full key of the property's topic
+     * @param setter the setter of the property
+     */
+    protected void publishPrimitiveDoubleProperty(String key, DoubleConsumer setter) {
+        publishDoubleProperty(key, null, setter::accept);
+    }
+
+    /**
+     * Publishes the setter of a property added with {@link #addPrimitiveIntProperty}.
+     * Boxes the values into {@link #publishIntProperty} by default, builders that can pass primitive values
+     * to the setter override it.
+     *
+     * @param key    the full key of the property's topic
+     * @param setter the setter of the property
+     */
+    protected void publishPrimitiveIntProperty(String key, IntConsumer setter) {
+        publishIntProperty(key, null, setter::accept);
+    }
+
     /**
      * Posts all properties to the network table using the specified announce method.
+     * The capture times of the values are lost, {@link #post(String, TopicSink)} keeps them.
      *
      * @param key            the base key for the properties
      * @param announceMethod the method used to announce the properties
      */
     public void post(String key, AnnounceMethod announceMethod) {
-        System.out.println(properties);
-        for (String topic : properties.keySet()) {
-            NetworkTablesValue value = properties.get(topic);
-
-            NetworkTablesValueType type = NetworkTablesValueType.getFromString(value.getType());
-
-            announceMethod.apply(key + "/" + topic, value.get());
-
-            if (type != NetworkTablesValueType.Unknown) {
-                switch (type) {
-                    case Int ->
-                            publishIntProperty(key, (Supplier<Integer>) value.getGetter(), (Consumer<Integer>) value.getSetter());
-                    case Double ->
-                            publishDoubleProperty(key, (Supplier<Double>) value.getGetter(), (Consumer<Double>) value.getSetter());
-                    case String ->
-                            publishStringProperty(key, (Supplier<String>) value.getGetter(), (Consumer<String>) value.getSetter());
-                    case Float ->
-                            publishFloatProperty(key, (Supplier<Float>) value.getGetter(), (Consumer<Float>) value.getSetter());
-                    case Boolean ->
-                            publishBooleanProperty(key, (Supplier<Boolean>) value.getGetter(), (Consumer<Boolean>) value.getSetter());
-                    case Raw ->
-                            publishRawProperty(key, (Supplier<byte[]>) value.getGetter(), (Consumer<byte[]>) value.getSetter());
-                    case BooleanArray ->
-                            publishBooleanArrayProperty(key, (Supplier<boolean[]>) value.getGetter(), (Consumer<boolean[]>) value.getSetter());
-                    case DoubleArray ->
-                            publishDoubleArrayProperty(key, (Supplier<double[]>) value.getGetter(), (Consumer<double[]>) value.getSetter());
-                    case IntArray ->
-                            publishIntArrayProperty(key, (Supplier<int[]>) value.getGetter(), (Consumer<int[]>) value.getSetter());
-                    case FloatArray ->
-                            publishFloatArrayProperty(key, (Supplier<float[]>) value.getGetter(), (Consumer<float[]>) value.getSetter());
-                    case StringArray ->
-                            publishStringArrayProperty(key, (Supplier<String[]>) value.getGetter(), (Consumer<String[]>) value.getSetter());
-                    default -> throw new IllegalArgumentException("Unsupported type: " + type);
-                }
-            } else {
+        if (m_announceSink == null || m_announceSink.m_announceMethod != announceMethod) {
+            m_announceSink = new AnnounceMethodSink(announceMethod);
+        }
 
+        post(key, m_announceSink);
+    }
+
+    /**
+     * Posts all properties to the given sink, each value with the time at which its getter was called.
+     * In {@link PublishMode#ON_CHANGE} mode only the properties whose value changed, or whose
+     * keep-alive period has passed, are sent. Properties that are not due according to their
+     * update period are not sampled at all.
+     * The properties are flattened into arrays on the first post with a given key, after which posting
+     * allocates nothing while the values do not change.
+     *
+     * @param key  the base key for the properties
+     * @param sink the sink the values are sent to
+     */
+    public void post(String key, TopicSink sink) {
+        if (m_updateTable != null) {
+            m_updateTable.run();
+        }
+
+        if (m_propertiesUpdater != null) {
+            int propertiesVersion = m_propertiesVersion.getAsInt();
+            if (propertiesVersion != m_lastPropertiesVersion) {
+                m_lastPropertiesVersion = propertiesVersion;
+                m_propertiesUpdater.accept(this);
             }
         }
 
-        announceMethod.apply(key + "/" + ".type", m_type);
+        if (!key.equals(m_compiledKey)) {
+            compile(key);
+        }
+
+        long now = System.nanoTime();
+        long keepAliveNanos = m_publishMode == PublishMode.ALWAYS ? 0 : m_keepAliveNanos;
+        long retainedResendNanos = TimeUnit.MILLISECONDS.toNanos(RETAINED_RESEND_MS);
+
+        SendableProperty[] compiledProperties = m_compiledProperties;
+        String[] compiledTopics = m_compiledTopics;
+        for (int i = 0; i < compiledProperties.length; i++) {
+            SendableProperty value = compiledProperties[i];
+            if (!value.poll(now, keepAliveNanos, m_periodNanos, retainedResendNanos)) continue;
+
+            value.send(sink, compiledTopics[i]);
+
+            // The topic exists once its first value was announced, so its setter can be published
+            if (value.m_setter != null && !value.m_setterPublished) {
+                value.m_setterPublished = true;
+                publishSetter(compiledTopics[i], value);
+                if (value.m_immediate) publishImmediate(compiledTopics[i]);
+            }
+        }
+
+        if (m_type != null && (!m_typeSent || now - m_typeSentNanos >= keepAliveNanos)) {
+            sink.putObject(m_compiledTypeTopic, NetworkTablesValueType.String, m_type, now);
+            m_typeSent = true;
+            m_typeSentNanos = now;
+        }
+    }
+
+    /**
+     * Flattens the properties into arrays of full topic names and properties for the given base key,
+     * so that posting does not iterate the property map or build topic names.
+     *
+     * @param key the base key for the properties
+     */
+    private void compile(String key) {
+        SendableProperty[] compiledProperties = new SendableProperty[properties.size()];
+        String[] compiledTopics = new String[properties.size()];
+
+        int i = 0;
+        for (Map.Entry<String, SendableProperty> entry : properties.entrySet()) {
+            compiledProperties[i] = entry.getValue();
+            compiledTopics[i] = key + "/" + entry.getKey();
+            i++;
+        }
+
+        m_compiledProperties = compiledProperties;
+        m_compiledTopics = compiledTopics;
+        m_compiledTypeTopic = key + "/" + ".type";
+        m_compiledKey = key;
+    }
+
+    /**
+     * Called after the setter of an immediate property was published.
+     *
+     * @param topic the full key of the property's topic
+     * @see #setImmediate(String)
+     */
+    protected void publishImmediate(String topic) {
+    }
+
+    /**
+     * Publishes the setter of a property through the matching publish method.
+     *
+     * @param topic the full key of the property's topic
+     * @param value the property
+     */
+    @SuppressWarnings("unchecked")
+    private void publishSetter(String topic, SendableProperty value) {
+        NetworkTablesValueType type = value.m_type;
+
+        switch (type) {
+            case Int -> {
+                if (value instanceof SendableProperty.IntProperty) {
+                    publishPrimitiveIntProperty(topic, ((SendableProperty.IntProperty) value).m_intSetter);
+                } else {
+                    publishIntProperty(topic, (Supplier<Integer>) value.m_getter, (Consumer<Integer>) value.m_setter);
+                }
+            }
+            case Double -> {
+                if (value instanceof SendableProperty.DoubleProperty) {
+                    publishPrimitiveDoubleProperty(topic, ((SendableProperty.DoubleProperty) value).m_doubleSetter);
+                } else {
+                    publishDoubleProperty(topic, (Supplier<Double>) value.m_getter, (Consumer<Double>) value.m_setter);
+                }
+            }
+            case String ->
+                    publishStringProperty(topic, (Supplier<String>) value.m_getter, (Consumer<String>) value.m_setter);
+            case Float ->
+                    publishFloatProperty(topic, (Supplier<Float>) value.m_getter, (Consumer<Float>) value.m_setter);
+            case Boolean ->
+                    publishBooleanProperty(topic, (Supplier<Boolean>) value.m_getter, (Consumer<Boolean>) value.m_setter);
+            case Raw ->
+                    publishRawProperty(topic, (Supplier<byte[]>) value.m_getter, (Consumer<byte[]>) value.m_setter);
+            case BooleanArray ->
+                    publishBooleanArrayProperty(topic, (Supplier<boolean[]>) value.m_getter, (Consumer<boolean[]>) value.m_setter);
+            case DoubleArray ->
+                    publishDoubleArrayProperty(topic, (Supplier<double[]>) value.m_getter, (Consumer<double[]>) value.m_setter);
+            case IntArray ->
+                    publishIntArrayProperty(topic, (Supplier<int[]>) value.m_getter, (Consumer<int[]>) value.m_setter);
+            case FloatArray ->
+                    publishFloatArrayProperty(topic, (Supplier<float[]>) value.m_getter, (Consumer<float[]>) value.m_setter);
+            case StringArray ->
+                    publishStringArrayProperty(topic, (Supplier<String[]>) value.m_getter, (Consumer<String[]>) value.m_setter);
+            default -> throw new IllegalArgumentException("Unsupported type: " + type);
+        }
+    }
+
+    /**
+     * Sends the values to an {@link AnnounceMethod}, which has no notion of capture time.
+     */
+    private static final class AnnounceMethodSink implements TopicSink {
+        private final AnnounceMethod m_announceMethod;
+
+        private AnnounceMethodSink(AnnounceMethod announceMethod) {
+            this.m_announceMethod = announceMethod;
+        }
+
+        @Override
+        public void putBoolean(String key, boolean value, long timestampNanos) {
+            m_announceMethod.apply(key, value);
+        }
+
+        @Override
+        public void putDouble(String key, double value, long timestampNanos) {
+            m_announceMethod.apply(key, value);
+        }
+
+        @Override
+        public void putFloat(String key, float value, long timestampNanos) {
+            m_announceMethod.apply(key, value);
+        }
+
+        @Override
+        public void putInt(String key, int value, long timestampNanos) {
+            m_announceMethod.apply(key, value);
+        }
+
+        @Override
+        public void putObject(String key, NetworkTablesValueType type, Object value, long timestampNanos) {
+            m_announceMethod.apply(key, value);
+        }
     }
-}
\ No newline at end of file
+}
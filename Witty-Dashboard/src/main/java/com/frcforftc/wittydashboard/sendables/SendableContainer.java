@@ -0,0 +1,30 @@
+package com.frcforftc.wittydashboard.sendables;
+
+/**
+ * A sendable holding child sendables, each posted by a builder of its own under the key of the container
+ * followed by the name of the child. The children are built when the container is put and when they change.
+ */
+public interface SendableContainer extends Sendable {
+    /**
+     * @return the names of all the children, built or not
+     */
+    String[] getChildNames();
+
+    /**
+     * Gets a child, building it on the first call.
+     *
+     * @param name the name of the child
+     * @return the child, or null if no sendable can be built for it
+     */
+    Sendable getChild(String name);
+
+    /**
+     * A container whose children can change returns a version that changes with them,
+     * so that the new children get attached and the removed ones stop being posted.
+     *
+     * @return the version of the children names
+     */
+    default int getChildrenVersion() {
+        return 0;
+    }
+}
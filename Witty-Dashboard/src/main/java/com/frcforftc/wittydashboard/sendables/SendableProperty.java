@@ -0,0 +1,361 @@
+package com.frcforftc.wittydashboard.sendables;
+
+import com.frcforftc.wittydashboard.topics.TopicSink;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A single property of a {@link Sendable}, holding its accessors together with the last value
+ * that was sent, so that unchanged samples can be skipped when posting.
+ * The nested primitive properties sample and send their values without boxing.
+ */
+class SendableProperty {
+    final NetworkTablesValueType m_type;
+    final Supplier<?> m_getter;
+    final Consumer<?> m_setter;
+
+    /**
+     * The sampling period of this property in nanoseconds, 0 to use the period of its sendable.
+     */
+    long m_periodNanos = 0;
+    private long m_nextDueNanos;
+
+    /**
+     * The version of the content of a retained property, which is sent again only when it changes, or null.
+     */
+    IntSupplier m_contentVersion;
+    private int m_sentContentVersion;
+
+    /**
+     * Whether the setter was already published, which can only happen once the topic exists.
+     */
+    boolean m_setterPublished = false;
+
+    /**
+     * Whether the setter runs as soon as a value arrives, even while incoming values are deferred.
+     */
+    boolean m_immediate = false;
+
+    private boolean m_hasSent = false;
+    private long m_lastSentNanos;
+    private double m_lastDouble;
+    private long m_lastLong;
+    private boolean m_lastBoolean;
+    private Object m_lastObject;
+    private Object m_value;
+    boolean m_changed;
+    /**
+     * The {@link System#nanoTime()} right before the getter was last called.
+     */
+    long m_sampleNanos;
+
+    SendableProperty(NetworkTablesValueType type, Supplier<?> getter, Consumer<?> setter) {
+        this.m_type = type;
+        this.m_getter = getter;
+        this.m_setter = setter;
+    }
+
+    /**
+     * Samples the getter if the property is due and decides whether the sampled value has to be sent.
+     * A value is sent when it differs from the last sent value, or when the keep-alive period has
+     * passed since the last send. Properties with a period of {@link SendableBuilder#PERIOD_ONCE}
+     * are sent a single time, or again once their content version changed if they are retained.
+     *
+     * @param nowNanos            the current {@link System#nanoTime()}
+     * @param keepAliveNanos      the keep-alive period, 0 to send every sample
+     * @param defaultPeriodNanos  the period of the sendable, used when the property has no period of its own
+     * @param retainedResendNanos the period at which retained properties are sent again anyway, 0 to never do so
+     * @return true if the sampled value, available through {@link #getValue()}, should be sent
+     */
+    boolean poll(long nowNanos, long keepAliveNanos, long defaultPeriodNanos, long retainedResendNanos) {
+        if (!hasGetter()) return false;
+
+        long periodNanos = m_periodNanos == 0 ? defaultPeriodNanos : m_periodNanos;
+        int contentVersion = 0;
+        if (periodNanos < 0) {
+            if (m_contentVersion != null) {
+                contentVersion = m_contentVersion.getAsInt();
+                if (retainedResendNanos > 0 && nowNanos - m_lastSentNanos >= retainedResendNanos) m_hasSent = false;
+            }
+            if (m_hasSent && (m_contentVersion == null || contentVersion == m_sentContentVersion)) return false;
+            m_sentContentVersion = contentVersion;
+        } else if (periodNanos > 0) {
+            if (m_hasSent && nowNanos - m_nextDueNanos < 0) return false;
+            m_nextDueNanos = (Math.floorDiv(nowNanos, periodNanos) + 1) * periodNanos;
+        }
+
+        m_sampleNanos = System.nanoTime();
+        if (!sample()) return false;
+
+        if (m_changed || !m_hasSent || nowNanos - m_lastSentNanos >= keepAliveNanos) {
+            m_hasSent = true;
+            m_lastSentNanos = nowNanos;
+            return true;
+        }
+
+        return false;
+    }
+
+    boolean hasGetter() {
+        return m_getter != null;
+    }
+
+    /**
+     * Calls the getter and compares the value against the previous sample, storing the result in {@link #m_changed}.
+     *
+     * @return false if the getter did not provide a value
+     */
+    boolean sample() {
+        Object value = m_getter.get();
+        if (value == null) return false;
+
+        m_value = value;
+        m_changed = updateLastValue(value);
+        return true;
+    }
+
+    /**
+     * @return the value sampled by the last call to {@link #poll(long, long, long)}
+     */
+    Object getValue() {
+        return m_value;
+    }
+
+    /**
+     * Sends the value sampled by the last call to {@link #poll(long, long, long)} with its capture time.
+     *
+     * @param sink  the sink to send the value to
+     * @param topic the full key of the property's topic
+     */
+    void send(TopicSink sink, String topic) {
+        Object value = getValue();
+        switch (m_type) {
+            case Boolean -> sink.putBoolean(topic, (Boolean) value, m_sampleNanos);
+            case Double -> sink.putDouble(topic, ((Number) value).doubleValue(), m_sampleNanos);
+            case Float -> sink.putFloat(topic, ((Number) value).floatValue(), m_sampleNanos);
+            case Int -> sink.putInt(topic, ((Number) value).intValue(), m_sampleNanos);
+            default -> sink.putObject(topic, m_type, value, m_sampleNanos);
+        }
+    }
+
+    /**
+     * Compares the value against the last sampled one without boxing it again and stores it.
+     * Arrays are copied into a retained buffer, since getters are allowed to reuse their arrays.
+     *
+     * @param value the sampled value
+     * @return true if the value differs from the previous sample
+     */
+    private boolean updateLastValue(Object value) {
+        boolean changed;
+        switch (m_type) {
+            case Double, Float -> {
+                double current = ((Number) value).doubleValue();
+                changed = Double.doubleToLongBits(current) != Double.doubleToLongBits(m_lastDouble);
+                m_lastDouble = current;
+            }
+            case Int -> {
+                long current = ((Number) value).longValue();
+                changed = current != m_lastLong;
+                m_lastLong = current;
+            }
+            case Boolean -> {
+                boolean current = (Boolean) value;
+                changed = current != m_lastBoolean;
+                m_lastBoolean = current;
+            }
+            case DoubleArray -> {
+                double[] current = (double[]) value;
+                double[] last = (double[]) m_lastObject;
+                changed = !Arrays.equals(current, last);
+                if (changed) {
+                    if (last == null || last.length != current.length) last = new double[current.length];
+                    System.arraycopy(current, 0, last, 0, current.length);
+                    m_lastObject = last;
+                }
+            }
+            case FloatArray -> {
+                float[] current = (float[]) value;
+                float[] last = (float[]) m_lastObject;
+                changed = !Arrays.equals(current, last);
+                if (changed) {
+                    if (last == null || last.length != current.length) last = new float[current.length];
+                    System.arraycopy(current, 0, last, 0, current.length);
+                    m_lastObject = last;
+                }
+            }
+            case IntArray -> {
+                int[] current = (int[]) value;
+                int[] last = (int[]) m_lastObject;
+                changed = !Arrays.equals(current, last);
+                if (changed) {
+                    if (last == null || last.length != current.length) last = new int[current.length];
+                    System.arraycopy(current, 0, last, 0, current.length);
+                    m_lastObject = last;
+                }
+            }
+            case BooleanArray -> {
+                boolean[] current = (boolean[]) value;
+                boolean[] last = (boolean[]) m_lastObject;
+                changed = !Arrays.equals(current, last);
+                if (changed) {
+                    if (last == null || last.length != current.length) last = new boolean[current.length];
+                    System.arraycopy(current, 0, last, 0, current.length);
+                    m_lastObject = last;
+                }
+            }
+            case Raw -> {
+                byte[] current = (byte[]) value;
+                byte[] last = (byte[]) m_lastObject;
+                changed = !Arrays.equals(current, last);
+                if (changed) {
+                    if (last == null || last.length != current.length) last = new byte[current.length];
+                    System.arraycopy(current, 0, last, 0, current.length);
+                    m_lastObject = last;
+                }
+            }
+            case StringArray -> {
+                String[] current = (String[]) value;
+                String[] last = (String[]) m_lastObject;
+                changed = !Arrays.equals(current, last);
+                if (changed) {
+                    if (last == null || last.length != current.length) last = new String[current.length];
+                    System.arraycopy(current, 0, last, 0, current.length);
+                    m_lastObject = last;
+                }
+            }
+            default -> {
+                changed = !value.equals(m_lastObject);
+                m_lastObject = value;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * A double property sampled through a {@link DoubleSupplier}.
+     */
+    static final class DoubleProperty extends SendableProperty {
+        private final DoubleSupplier m_doubleGetter;
+        /**
+         * The setter without boxing, the boxed {@link #m_setter} only adapts it for the generic paths.
+         */
+        final DoubleConsumer m_doubleSetter;
+        private double m_current;
+
+        DoubleProperty(DoubleSupplier getter, DoubleConsumer setter) {
+            super(NetworkTablesValueType.Double, null, setter == null ? null : (Consumer<Double>) setter::accept);
+            this.m_doubleGetter = getter;
+            this.m_doubleSetter = setter;
+        }
+
+        @Override
+        boolean hasGetter() {
+            return m_doubleGetter != null;
+        }
+
+        @Override
+        boolean sample() {
+            double current = m_doubleGetter.getAsDouble();
+            m_changed = Double.doubleToLongBits(current) != Double.doubleToLongBits(m_current);
+            m_current = current;
+            return true;
+        }
+
+        @Override
+        Object getValue() {
+            return m_current;
+        }
+
+        @Override
+        void send(TopicSink sink, String topic) {
+            sink.putDouble(topic, m_current, m_sampleNanos);
+        }
+    }
+
+    /**
+     * An integer property sampled through an {@link IntSupplier}.
+     */
+    static final class IntProperty extends SendableProperty {
+        private final IntSupplier m_intGetter;
+        /**
+         * The setter without boxing, the boxed {@link #m_setter} only adapts it for the generic paths.
+         */
+        final IntConsumer m_intSetter;
+        private int m_current;
+
+        IntProperty(IntSupplier getter, IntConsumer setter) {
+            super(NetworkTablesValueType.Int, null, setter == null ? null : (Consumer<Integer>) setter::accept);
+            this.m_intGetter = getter;
+            this.m_intSetter = setter;
+        }
+
+        @Override
+        boolean hasGetter() {
+            return m_intGetter != null;
+        }
+
+        @Override
+        boolean sample() {
+            int current = m_intGetter.getAsInt();
+            m_changed = current != m_current;
+            m_current = current;
+            return true;
+        }
+
+        @Override
+        Object getValue() {
+            return m_current;
+        }
+
+        @Override
+        void send(TopicSink sink, String topic) {
+            sink.putInt(topic, m_current, m_sampleNanos);
+        }
+    }
+
+    /**
+     * A boolean property sampled through a {@link BooleanSupplier}.
+     */
+    static final class BooleanProperty extends SendableProperty {
+        private final BooleanSupplier m_booleanGetter;
+        private boolean m_current;
+
+        BooleanProperty(BooleanSupplier getter, Consumer<Boolean> setter) {
+            super(NetworkTablesValueType.Boolean, null, setter);
+            this.m_booleanGetter = getter;
+        }
+
+        @Override
+        boolean hasGetter() {
+            return m_booleanGetter != null;
+        }
+
+        @Override
+        boolean sample() {
+            boolean current = m_booleanGetter.getAsBoolean();
+            m_changed = current != m_current;
+            m_current = current;
+            return true;
+        }
+
+        @Override
+        Object getValue() {
+            return m_current;
+        }
+
+        @Override
+        void send(TopicSink sink, String topic) {
+            sink.putBoolean(topic, m_current, m_sampleNanos);
+        }
+    }
+}
@@ -24,7 +24,7 @@ public class CommandSendable implements Sendable {
 
         builder.setSmartDashboardType("Command");
         builder.addStringProperty(".name", m_command::getName, null);
-        builder.addBooleanProperty("running", m_command::isScheduled, (value) -> {
+        builder.addPrimitiveBooleanProperty("running", m_command::isScheduled, (value) -> {
             if (value) {
                 if (!m_command.isScheduled()) {
                     m_command.schedule();
@@ -38,6 +38,6 @@ public class CommandSendable implements Sendable {
 
 //        builder.addBooleanProperty(".isParented", );
         builder.addStringProperty("interruptBehavior", () -> "kCancelSelf", null); // Always the value in allwpilib
-        builder.addBooleanProperty("runsWhenDisabled", m_command::runsWhenDisabled, null);
+        builder.addPrimitiveBooleanProperty("runsWhenDisabled", m_command::runsWhenDisabled, null);
     }
 }
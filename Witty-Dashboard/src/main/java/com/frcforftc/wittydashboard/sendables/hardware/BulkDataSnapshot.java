@@ -0,0 +1,97 @@
+package com.frcforftc.wittydashboard.sendables.hardware;
+
+import androidx.annotation.NonNull;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bulk data snapshot of a single hub, shared by all the hardware sendables of that hub.
+ * The snapshot is refreshed at most once per publish tick, so a tick costs a single bulk read
+ * per hub instead of one command per property.
+ * <p>
+ * The user's {@link LynxModule.BulkCachingMode} is respected:
+ * <ul>
+ *     <li>{@code OFF}: the snapshot is read with {@link LynxModule#getBulkData()}, there is no cache to disturb.</li>
+ *     <li>{@code AUTO} and {@code MANUAL}: no bulk read is issued, since it would replace the data the hub cached
+ *     for the user's loop from another thread, in the middle of that loop. {@link #get()} returns the data the user
+ *     shared through {@link #set(LynxModule.BulkData)}, or null if nothing was shared, in which case the sendables
+ *     read through the device getters, which are served from the hub's cache.</li>
+ * </ul>
+ */
+public final class BulkDataSnapshot {
+    /**
+     * The age after which a snapshot is refreshed, short enough that every publish tick reads the hub again,
+     * long enough that the sendables posted in the same tick share a single read.
+     */
+    public static final long MAX_AGE_MS = 5;
+
+    private static final Map<LynxModule, BulkDataSnapshot> m_snapshots = new WeakHashMap<>();
+
+    private final LynxModule m_module;
+    private LynxModule.BulkData m_data;
+    private long m_readNanos;
+    private LynxModule.BulkData m_sharedData;
+
+    private BulkDataSnapshot(LynxModule module) {
+        this.m_module = module;
+    }
+
+    /**
+     * Gets the shared snapshot of a hub.
+     *
+     * @param module the hub
+     * @return the snapshot of the hub
+     */
+    public static BulkDataSnapshot forModule(@NonNull LynxModule module) {
+        synchronized (m_snapshots) {
+            BulkDataSnapshot snapshot = m_snapshots.get(module);
+            if (snapshot == null) {
+                snapshot = new BulkDataSnapshot(module);
+                m_snapshots.put(module, snapshot);
+            }
+
+            return snapshot;
+        }
+    }
+
+    public LynxModule getModule() {
+        return m_module;
+    }
+
+    /**
+     * Gets the bulk data of the current publish tick.
+     * In {@link LynxModule.BulkCachingMode#OFF} mode the hub is read if the snapshot is older than {@link #MAX_AGE_MS},
+     * in the caching modes the hub is never read and the last shared data is returned.
+     *
+     * @return the bulk data, or in the caching modes the last shared data, possibly null
+     */
+    public synchronized LynxModule.BulkData get() {
+        if (m_module.getBulkCachingMode() != LynxModule.BulkCachingMode.OFF) {
+            return m_sharedData;
+        }
+
+        long now = System.nanoTime();
+        if (m_data == null || now - m_readNanos >= TimeUnit.MILLISECONDS.toNanos(MAX_AGE_MS)) {
+            m_data = m_module.getBulkData();
+            m_readNanos = now;
+        }
+
+        return m_data;
+    }
+
+    /**
+     * Shares the bulk data the user read in {@link LynxModule.BulkCachingMode#MANUAL} or
+     * {@link LynxModule.BulkCachingMode#AUTO} mode, e.g. right after {@link LynxModule#clearBulkCache()}
+     * and {@link LynxModule#getBulkData()} at the start of a loop,
+     * so the sendables of the hub can publish it without another read.
+     *
+     * @param data the bulk data of the current loop
+     */
+    public synchronized void set(LynxModule.BulkData data) {
+        m_sharedData = data;
+    }
+}
@@ -0,0 +1,43 @@
+package com.frcforftc.wittydashboard.sendables.hardware;
+
+import androidx.annotation.NonNull;
+
+import com.frcforftc.wittydashboard.sendables.Sendable;
+import com.frcforftc.wittydashboard.sendables.SendableBuilder;
+import com.qualcomm.robotcore.hardware.ColorSensor;
+import com.qualcomm.robotcore.hardware.DistanceSensor;
+
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+
+/**
+ * Publishes the color channels of a color sensor, and its distance when the sensor also measures one.
+ */
+public class ColorSensorSendable implements Sendable {
+    private final ColorSensor m_sensor;
+    private final int[] m_color = new int[4];
+
+    public ColorSensorSendable(@NonNull ColorSensor sensor) {
+        this.m_sensor = sensor;
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("Color Sensor");
+        builder.addIntArrayProperty("RGBA", this::getColor, null);
+        if (this.m_sensor instanceof DistanceSensor) {
+            DistanceSensor distanceSensor = (DistanceSensor) this.m_sensor;
+            builder.addPrimitiveDoubleProperty("Distance (cm)", () -> distanceSensor.getDistance(DistanceUnit.CM), null);
+        }
+        builder.addStringProperty("Device name", this.m_sensor::getDeviceName, null);
+
+        builder.setUpdatePeriod("Device name", SendableBuilder.PERIOD_ONCE);
+    }
+
+    public int[] getColor() {
+        m_color[0] = this.m_sensor.red();
+        m_color[1] = this.m_sensor.green();
+        m_color[2] = this.m_sensor.blue();
+        m_color[3] = this.m_sensor.alpha();
+        return m_color;
+    }
+}
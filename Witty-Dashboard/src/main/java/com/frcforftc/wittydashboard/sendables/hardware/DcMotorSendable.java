@@ -4,29 +4,72 @@ import androidx.annotation.NonNull;
 
 import com.frcforftc.wittydashboard.sendables.Sendable;
 import com.frcforftc.wittydashboard.sendables.SendableBuilder;
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 
 import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
 
 public class DcMotorSendable implements Sendable {
+    /**
+     * The update period of the motor current, which is not part of the bulk data and costs a command of its own.
+     */
+    public static final long CURRENT_PERIOD_MS = 500;
+
     private final DcMotorEx m_motor;
+    private final BulkDataSnapshot m_snapshot;
 
     public DcMotorSendable(@NonNull DcMotorEx motor) {
         this.m_motor = motor;
+        this.m_snapshot = null;
+    }
+
+    /**
+     * Creates a motor sendable that samples the motor from the shared bulk data of its hub.
+     *
+     * @param motor the motor
+     * @param hub   the hub the motor is connected to
+     * @see BulkDataSnapshot
+     */
+    public DcMotorSendable(@NonNull DcMotorEx motor, @NonNull LynxModule hub) {
+        this.m_motor = motor;
+        this.m_snapshot = BulkDataSnapshot.forModule(hub);
     }
 
     @Override
     public void initSendable(SendableBuilder builder) {
         builder.setSmartDashboardType("Motor Controller");
-        builder.addDoubleProperty("Value", this.m_motor::getPower, this.m_motor::setPower);
-        builder.addIntProperty("Current Position", this.m_motor::getCurrentPosition, null);
-        builder.addIntProperty("Target Position", this.m_motor::getTargetPosition, this.m_motor::setTargetPosition);
-        builder.addBooleanProperty("Direction", this::getDirection, this::setDirection); // Forward = true
-        builder.addDoubleProperty("Current", () -> this.m_motor.getCurrent(CurrentUnit.AMPS), null);
-        builder.addBooleanProperty("Is Over Current", this.m_motor::isOverCurrent, null);
+        builder.addPrimitiveDoubleProperty("Value", this.m_motor::getPower, this.m_motor::setPower);
+        builder.addPrimitiveIntProperty("Current Position", this::getCurrentPosition, null);
+        builder.addPrimitiveIntProperty("Target Position", this.m_motor::getTargetPosition, this.m_motor::setTargetPosition);
+        builder.addPrimitiveBooleanProperty("Direction", this::getDirection, this::setDirection); // Forward = true
+        builder.addPrimitiveDoubleProperty("Current", () -> this.m_motor.getCurrent(CurrentUnit.AMPS), null);
+        builder.addPrimitiveBooleanProperty("Is Over Current", this::isOverCurrent, null);
         builder.addStringProperty("Device name", this.m_motor::getDeviceName, null);
         builder.addStringProperty("Zero Power Behaviour", () -> m_motor.getZeroPowerBehavior().name(), null);
+
+        builder.setUpdatePeriod("Device name", SendableBuilder.PERIOD_ONCE);
+        builder.setUpdatePeriod("Current", CURRENT_PERIOD_MS);
+    }
+
+    public int getCurrentPosition() {
+        LynxModule.BulkData data = m_snapshot == null ? null : m_snapshot.get();
+        if (data == null) {
+            return this.m_motor.getCurrentPosition();
+        }
+
+        int position = data.getMotorCurrentPosition(this.m_motor.getPortNumber());
+        // The bulk data is raw, the motor reverses the position itself
+        return this.m_motor.getDirection() == DcMotorSimple.Direction.FORWARD ? position : -position;
+    }
+
+    public boolean isOverCurrent() {
+        LynxModule.BulkData data = m_snapshot == null ? null : m_snapshot.get();
+        if (data == null) {
+            return this.m_motor.isOverCurrent();
+        }
+
+        return data.isMotorOverCurrent(this.m_motor.getPortNumber());
     }
 
     public boolean getDirection() {
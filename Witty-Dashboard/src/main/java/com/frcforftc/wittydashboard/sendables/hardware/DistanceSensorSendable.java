@@ -0,0 +1,26 @@
+package com.frcforftc.wittydashboard.sendables.hardware;
+
+import androidx.annotation.NonNull;
+
+import com.frcforftc.wittydashboard.sendables.Sendable;
+import com.frcforftc.wittydashboard.sendables.SendableBuilder;
+import com.qualcomm.robotcore.hardware.DistanceSensor;
+
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+
+public class DistanceSensorSendable implements Sendable {
+    private final DistanceSensor m_sensor;
+
+    public DistanceSensorSendable(@NonNull DistanceSensor sensor) {
+        this.m_sensor = sensor;
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("Distance Sensor");
+        builder.addPrimitiveDoubleProperty("Distance (cm)", () -> this.m_sensor.getDistance(DistanceUnit.CM), null);
+        builder.addStringProperty("Device name", this.m_sensor::getDeviceName, null);
+
+        builder.setUpdatePeriod("Device name", SendableBuilder.PERIOD_ONCE);
+    }
+}
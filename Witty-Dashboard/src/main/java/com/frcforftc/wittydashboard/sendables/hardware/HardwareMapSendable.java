@@ -0,0 +1,120 @@
+package com.frcforftc.wittydashboard.sendables.hardware;
+
+import androidx.annotation.NonNull;
+
+import com.frcforftc.wittydashboard.sendables.Sendable;
+import com.frcforftc.wittydashboard.sendables.SendableBuilder;
+import com.frcforftc.wittydashboard.sendables.SendableContainer;
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.ColorSensor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.DistanceSensor;
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+import com.qualcomm.robotcore.hardware.IMU;
+import com.qualcomm.robotcore.hardware.Servo;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the configured devices of an OpMode, each under its own sub-table.
+ * The sendable of a device is built when the hardware map is put and is then kept for the life of the OpMode.
+ * Motors of a configured hub share the bulk data snapshot of that hub, see {@link BulkDataSnapshot}.
+ */
+public class HardwareMapSendable implements SendableContainer {
+    private final Map<String, List<HardwareDevice>> m_devices;
+    private final String[] m_names;
+    private final Map<String, Sendable> m_children = new HashMap<>();
+    private final Map<String, LynxModule> m_hubs = new HashMap<>();
+
+    /**
+     * @param devices the devices by configured name, as in the hardware map's allDevicesMap
+     * @see com.frcforftc.wittydashboard.sendables.opModeControl.OpModeSendable#getDevices()
+     */
+    public HardwareMapSendable(@NonNull Map<String, List<HardwareDevice>> devices) {
+        this.m_devices = devices;
+        this.m_names = devices.keySet().toArray(new String[0]);
+
+        for (List<HardwareDevice> named : devices.values()) {
+            for (HardwareDevice device : named) {
+                if (device instanceof LynxModule) m_hubs.put(device.getConnectionInfo(), (LynxModule) device);
+            }
+        }
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("Hardware Map");
+        builder.addStringArrayProperty("Devices", this::getChildNames, null);
+        builder.setUpdatePeriod("Devices", SendableBuilder.PERIOD_ONCE);
+    }
+
+    @Override
+    public String[] getChildNames() {
+        return m_names;
+    }
+
+    @Override
+    public synchronized Sendable getChild(String name) {
+        if (m_children.containsKey(name)) return m_children.get(name);
+
+        Sendable child = null;
+        List<HardwareDevice> devices = m_devices.get(name);
+        if (devices != null) {
+            // A name can hold several devices, e.g. a hub and its voltage sensor, the first supported one is used
+            for (HardwareDevice device : devices) {
+                child = createSendable(device, findHub(device));
+                if (child != null) break;
+            }
+        }
+
+        m_children.put(name, child);
+        return child;
+    }
+
+    /**
+     * Finds the configured hub a motor is connected to, the controller of a hub's motors
+     * has the same connection info as the hub itself.
+     *
+     * @param device the device
+     * @return the hub of the motor, or null if the device is not a motor or its hub is not configured
+     */
+    private LynxModule findHub(HardwareDevice device) {
+        if (!(device instanceof DcMotorEx)) return null;
+
+        HardwareDevice controller = ((DcMotorEx) device).getController();
+        return controller == null ? null : m_hubs.get(controller.getConnectionInfo());
+    }
+
+    /**
+     * Creates the sendable matching the type of a device.
+     *
+     * @param device the device
+     * @return the sendable of the device, or null if the type is not supported
+     */
+    public static Sendable createSendable(HardwareDevice device) {
+        return createSendable(device, null);
+    }
+
+    /**
+     * Creates the sendable matching the type of a device, motors sample the bulk data of their hub when it is given.
+     *
+     * @param device the device
+     * @param hub    the hub the device is connected to, or null if unknown
+     * @return the sendable of the device, or null if the type is not supported
+     */
+    public static Sendable createSendable(HardwareDevice device, LynxModule hub) {
+        if (device instanceof DcMotorEx) {
+            return hub == null ? new DcMotorSendable((DcMotorEx) device) : new DcMotorSendable((DcMotorEx) device, hub);
+        }
+        if (device instanceof Servo) return new ServoSendable((Servo) device);
+        if (device instanceof IMU) return new IMUSendable((IMU) device);
+        if (device instanceof ColorSensor) return new ColorSensorSendable((ColorSensor) device);
+        if (device instanceof DistanceSensor) return new DistanceSensorSendable((DistanceSensor) device);
+        if (device instanceof LynxModule) return new LynxModuleSendable((LynxModule) device);
+        if (device instanceof VoltageSensor) return new VoltageSensorSendable((VoltageSensor) device);
+        return null;
+    }
+}
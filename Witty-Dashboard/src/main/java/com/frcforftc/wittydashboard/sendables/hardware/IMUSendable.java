@@ -0,0 +1,51 @@
+package com.frcforftc.wittydashboard.sendables.hardware;
+
+import androidx.annotation.NonNull;
+
+import com.frcforftc.wittydashboard.sendables.Sendable;
+import com.frcforftc.wittydashboard.sendables.SendableBuilder;
+import com.qualcomm.robotcore.hardware.IMU;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AngularVelocity;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+
+/**
+ * Publishes the orientation and angular velocity of an IMU, in degrees and degrees per second.
+ * Each of them is a single I2C read, published as an array instead of one property per axis.
+ */
+public class IMUSendable implements Sendable {
+    private final IMU m_imu;
+    private final double[] m_orientation = new double[3];
+    private final double[] m_angularVelocity = new double[3];
+
+    public IMUSendable(@NonNull IMU imu) {
+        this.m_imu = imu;
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("IMU");
+        builder.addDoubleArrayProperty("Yaw Pitch Roll", this::getOrientation, null);
+        builder.addDoubleArrayProperty("Angular Velocity XYZ", this::getAngularVelocity, null);
+        builder.addStringProperty("Device name", this.m_imu::getDeviceName, null);
+
+        builder.setUpdatePeriod("Device name", SendableBuilder.PERIOD_ONCE);
+    }
+
+    public double[] getOrientation() {
+        YawPitchRollAngles angles = this.m_imu.getRobotYawPitchRollAngles();
+        m_orientation[0] = angles.getYaw(AngleUnit.DEGREES);
+        m_orientation[1] = angles.getPitch(AngleUnit.DEGREES);
+        m_orientation[2] = angles.getRoll(AngleUnit.DEGREES);
+        return m_orientation;
+    }
+
+    public double[] getAngularVelocity() {
+        AngularVelocity velocity = this.m_imu.getRobotAngularVelocity(AngleUnit.DEGREES);
+        m_angularVelocity[0] = velocity.xRotationRate;
+        m_angularVelocity[1] = velocity.yRotationRate;
+        m_angularVelocity[2] = velocity.zRotationRate;
+        return m_angularVelocity;
+    }
+}
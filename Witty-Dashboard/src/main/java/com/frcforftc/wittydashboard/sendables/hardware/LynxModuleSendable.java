@@ -0,0 +1,108 @@
+package com.frcforftc.wittydashboard.sendables.hardware;
+
+import androidx.annotation.NonNull;
+
+import com.frcforftc.wittydashboard.sendables.Sendable;
+import com.frcforftc.wittydashboard.sendables.SendableBuilder;
+import com.qualcomm.hardware.lynx.LynxModule;
+
+import org.firstinspires.ftc.robotcore.external.navigation.VoltageUnit;
+
+/**
+ * Publishes the state of a whole hub as packed arrays, indexed by port, from a single bulk data snapshot per tick.
+ *
+ * @see BulkDataSnapshot
+ */
+public class LynxModuleSendable implements Sendable {
+    public static final int MOTOR_PORTS = 4;
+    public static final int DIGITAL_CHANNELS = 8;
+    public static final int ANALOG_INPUTS = 4;
+
+    /**
+     * The update period of the input voltage, which is not part of the bulk data and costs a command of its own.
+     */
+    public static final long INPUT_VOLTAGE_PERIOD_MS = 500;
+
+    private final LynxModule m_module;
+    private final BulkDataSnapshot m_snapshot;
+    private final int[] m_positions = new int[MOTOR_PORTS];
+    private final int[] m_velocities = new int[MOTOR_PORTS];
+    private final boolean[] m_overCurrent = new boolean[MOTOR_PORTS];
+    private final boolean[] m_digitalInputs = new boolean[DIGITAL_CHANNELS];
+    private final double[] m_analogInputs = new double[ANALOG_INPUTS];
+
+    public LynxModuleSendable(@NonNull LynxModule module) {
+        this.m_module = module;
+        this.m_snapshot = BulkDataSnapshot.forModule(module);
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("Lynx Module");
+        builder.addIntArrayProperty("Motor Positions", this::getMotorPositions, null);
+        builder.addIntArrayProperty("Motor Velocities", this::getMotorVelocities, null);
+        builder.addBooleanArrayProperty("Motors Over Current", this::getMotorsOverCurrent, null);
+        builder.addBooleanArrayProperty("Digital Inputs", this::getDigitalInputs, null);
+        builder.addDoubleArrayProperty("Analog Inputs", this::getAnalogInputs, null);
+        builder.addPrimitiveDoubleProperty("Input Voltage", () -> this.m_module.getInputVoltage(VoltageUnit.VOLTS), null);
+        builder.addStringProperty("Device name", this.m_module::getDeviceName, null);
+
+        builder.setUpdatePeriod("Device name", SendableBuilder.PERIOD_ONCE);
+        builder.setUpdatePeriod("Input Voltage", INPUT_VOLTAGE_PERIOD_MS);
+    }
+
+    /**
+     * The getters below fill arrays owned by the sendable, which are only valid until the next call.
+     *
+     * @return the encoder positions of the motor ports, or null if no bulk data is available
+     */
+    public int[] getMotorPositions() {
+        LynxModule.BulkData data = m_snapshot.get();
+        if (data == null) return null;
+
+        for (int i = 0; i < MOTOR_PORTS; i++) {
+            m_positions[i] = data.getMotorCurrentPosition(i);
+        }
+        return m_positions;
+    }
+
+    public int[] getMotorVelocities() {
+        LynxModule.BulkData data = m_snapshot.get();
+        if (data == null) return null;
+
+        for (int i = 0; i < MOTOR_PORTS; i++) {
+            m_velocities[i] = data.getMotorVelocity(i);
+        }
+        return m_velocities;
+    }
+
+    public boolean[] getMotorsOverCurrent() {
+        LynxModule.BulkData data = m_snapshot.get();
+        if (data == null) return null;
+
+        for (int i = 0; i < MOTOR_PORTS; i++) {
+            m_overCurrent[i] = data.isMotorOverCurrent(i);
+        }
+        return m_overCurrent;
+    }
+
+    public boolean[] getDigitalInputs() {
+        LynxModule.BulkData data = m_snapshot.get();
+        if (data == null) return null;
+
+        for (int i = 0; i < DIGITAL_CHANNELS; i++) {
+            m_digitalInputs[i] = data.getDigitalChannelState(i);
+        }
+        return m_digitalInputs;
+    }
+
+    public double[] getAnalogInputs() {
+        LynxModule.BulkData data = m_snapshot.get();
+        if (data == null) return null;
+
+        for (int i = 0; i < ANALOG_INPUTS; i++) {
+            m_analogInputs[i] = data.getAnalogInputVoltage(i);
+        }
+        return m_analogInputs;
+    }
+}
@@ -16,9 +16,11 @@ public class ServoSendable implements Sendable {
     @Override
     public void initSendable(SendableBuilder builder) {
         builder.setSmartDashboardType("Servo");
-        builder.addDoubleProperty("Value", this.m_servo::getPosition, this.m_servo::setPosition);
-        builder.addBooleanProperty("Direction", this::getDirection, this::setDirection);
+        builder.addPrimitiveDoubleProperty("Value", this.m_servo::getPosition, this.m_servo::setPosition);
+        builder.addPrimitiveBooleanProperty("Direction", this::getDirection, this::setDirection);
         builder.addStringProperty("Device name", this.m_servo::getDeviceName, null);
+
+        builder.setUpdatePeriod("Device name", SendableBuilder.PERIOD_ONCE);
     }
 
     public boolean getDirection() {
@@ -0,0 +1,30 @@
+package com.frcforftc.wittydashboard.sendables.hardware;
+
+import androidx.annotation.NonNull;
+
+import com.frcforftc.wittydashboard.sendables.Sendable;
+import com.frcforftc.wittydashboard.sendables.SendableBuilder;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+public class VoltageSensorSendable implements Sendable {
+    /**
+     * The update period of the voltage, which changes slowly and costs a command per read.
+     */
+    public static final long VOLTAGE_PERIOD_MS = 500;
+
+    private final VoltageSensor m_sensor;
+
+    public VoltageSensorSendable(@NonNull VoltageSensor sensor) {
+        this.m_sensor = sensor;
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("Voltage Sensor");
+        builder.addPrimitiveDoubleProperty("Voltage", this.m_sensor::getVoltage, null);
+        builder.addStringProperty("Device name", this.m_sensor::getDeviceName, null);
+
+        builder.setUpdatePeriod("Device name", SendableBuilder.PERIOD_ONCE);
+        builder.setUpdatePeriod("Voltage", VOLTAGE_PERIOD_MS);
+    }
+}
@@ -0,0 +1,125 @@
+package com.frcforftc.wittydashboard.sendables.opModeControl;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.internal.opmode.OpModeMeta;
+import org.firstinspires.ftc.robotcore.internal.opmode.RegisteredOpModes;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The registered OpModes, computed once after {@link RegisteredOpModes} finished loading them
+ * instead of on every read, and computed again only when the registry changes, such as after an OnBotJava build.
+ * <p>
+ * The names are kept as arrays that are replaced, never modified, so they can be published as they are.
+ * The version only changes when the names did, so the sendables can send the catalog once and again on changes.
+ */
+public final class OpModeCatalog {
+    private static final Object m_lock = new Object();
+    private static volatile String[] m_opModeNames = new String[0];
+    private static volatile String[] m_teleOpNames = new String[0];
+    private static volatile String[] m_autonomousNames = new String[0];
+    private static volatile int m_version = 0;
+    private static boolean m_loaded = false;
+    private static boolean m_refreshing = false;
+    private static boolean m_refreshPending = false;
+
+    private OpModeCatalog() {
+    }
+
+    /**
+     * Loads the catalog if it was never loaded, the first caller starts the load and nobody waits for it.
+     */
+    public static void load() {
+        synchronized (m_lock) {
+            if (m_loaded) return;
+        }
+        refresh();
+    }
+
+    /**
+     * Loads the catalog again on a background thread, once the registry finished registering the OpModes.
+     * Refreshes requested while one is running are merged into a single refresh after it.
+     */
+    public static void refresh() {
+        synchronized (m_lock) {
+            m_loaded = true;
+            if (m_refreshing) {
+                m_refreshPending = true;
+                return;
+            }
+            m_refreshing = true;
+        }
+
+        Thread thread = new Thread(OpModeCatalog::runRefresh, "WittyDashboard OpMode Catalog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void runRefresh() {
+        while (true) {
+            try {
+                RegisteredOpModes registry = RegisteredOpModes.getInstance();
+                registry.waitOpModesRegistered();
+                update(OpModeRegistrarSendable.collectOpModesMeta());
+            } catch (RuntimeException e) {
+                RobotLog.ee("WittyDashboard", e, "Failed to load the registered OpModes");
+            }
+
+            synchronized (m_lock) {
+                if (!m_refreshPending) {
+                    m_refreshing = false;
+                    return;
+                }
+                m_refreshPending = false;
+            }
+        }
+    }
+
+    private static void update(List<OpModeMeta> opModes) {
+        String[] opModeNames = OpModeRegistrarSendable.collectOpModeNames(opModes.stream()).toArray(new String[0]);
+        String[] teleOpNames = OpModeRegistrarSendable.collectTeleopNames(opModes.stream()).toArray(new String[0]);
+        String[] autonomousNames = OpModeRegistrarSendable.collectAutonomousNames(opModes.stream()).toArray(new String[0]);
+
+        if (Arrays.equals(opModeNames, m_opModeNames)
+                && Arrays.equals(teleOpNames, m_teleOpNames)
+                && Arrays.equals(autonomousNames, m_autonomousNames)) {
+            return;
+        }
+
+        m_opModeNames = opModeNames;
+        m_teleOpNames = teleOpNames;
+        m_autonomousNames = autonomousNames;
+        m_version++;
+        RobotLog.vv("WittyDashboard", "Loaded %d OpModes", opModeNames.length);
+    }
+
+    /**
+     * @return the names of all the registered OpModes but the system ones, must not be modified
+     */
+    public static String[] getOpModeNames() {
+        return m_opModeNames;
+    }
+
+    /**
+     * @return the names of the registered TeleOp OpModes, must not be modified
+     */
+    public static String[] getTeleOpNames() {
+        return m_teleOpNames;
+    }
+
+    /**
+     * @return the names of the registered Autonomous OpModes, must not be modified
+     */
+    public static String[] getAutonomousNames() {
+        return m_autonomousNames;
+    }
+
+    /**
+     * @return a version that changes every time the names change
+     */
+    public static int getVersion() {
+        return m_version;
+    }
+}
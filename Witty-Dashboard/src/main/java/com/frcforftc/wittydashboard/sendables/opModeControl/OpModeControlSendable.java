@@ -2,47 +2,124 @@ package com.frcforftc.wittydashboard.sendables.opModeControl;
 
 import com.arcrobotics.ftclib.command.Command;
 import com.arcrobotics.ftclib.command.Subsystem;
+import com.frcforftc.wittydashboard.sendables.Sendable;
 import com.frcforftc.wittydashboard.sendables.SendableBuilder;
+import com.frcforftc.wittydashboard.sendables.SendableContainer;
 import com.frcforftc.wittydashboard.sendables.ftclib.CommandSendable;
+import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerImpl;
 
-import org.frcforftc.networktables.AnnounceMethod;
-
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Publishes a command per registered TeleOp, which inits the OpMode when run and stops it when canceled.
+ * <p>
+ * The TeleOps come from the {@link OpModeCatalog}. Each command is a child of this container, built once and
+ * kept until the OpMode is no longer registered, so the children follow the catalog when it changes.
+ * <p>
+ * Any OpMode can also be initialized, started and stopped by writing a sequenced request to the Request topic,
+ * which is handled on arrival and acknowledged on the Ack topic, see {@link OpModeLifecycle}.
+ * The state of the active OpMode is posted as soon as it changes, as is the acknowledgement.
+ * <p>
+ * The app hooks put it as a persistent sendable when the event loop is created, so it is reachable between OpModes,
+ * see {@link com.frcforftc.wittydashboard.WittyDashboard#putPersistentSendable(String, Sendable)}.
+ */
+public class OpModeControlSendable implements SendableContainer {
+    private final ConcurrentMap<String, CommandSendable> m_commands = new ConcurrentHashMap<>();
+    private Runnable m_lifecycleListener;
+
+    public OpModeControlSendable() {
+        OpModeCatalog.load();
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("OpModeControl");
+        builder.addStringArrayProperty("OpModes", OpModeCatalog::getTeleOpNames, null);
+        builder.setRetained("OpModes", OpModeCatalog::getVersion);
+
+        builder.addStringArrayProperty("Request", OpModeLifecycle::getLastRequest, OpModeLifecycle::request);
+        builder.addDoubleArrayProperty("Ack", OpModeLifecycle::getAck, null);
+        builder.addStringProperty("State", () -> OpModeLifecycle.getState().name(), null);
+        builder.addStringProperty("Active OpMode", OpModeLifecycle::getActiveOpMode, null);
+        builder.addPrimitiveDoubleProperty("State Time (us)", OpModeLifecycle::getStateTimeMicros, null);
+        builder.setImmediate("Request");
+        builder.setRetained("Request", OpModeLifecycle::getRequestVersion);
+        builder.setRetained("Ack", OpModeLifecycle::getAckVersion);
+        builder.setRetained("State", OpModeLifecycle::getStateVersion);
+        builder.setRetained("Active OpMode", OpModeLifecycle::getStateVersion);
+        builder.setRetained("State Time (us)", OpModeLifecycle::getStateVersion);
+
+        // Only the builder the sendable was last put with is posted on changes
+        synchronized (this) {
+            if (m_lifecycleListener != null) OpModeLifecycle.removeListener(m_lifecycleListener);
+            m_lifecycleListener = builder::requestPost;
+            OpModeLifecycle.addListener(m_lifecycleListener);
+        }
+    }
+
+    @Override
+    public String[] getChildNames() {
+        String[] names = OpModeCatalog.getTeleOpNames();
+        // Forget the commands of the OpModes that are no longer registered
+        m_commands.keySet().retainAll(Arrays.asList(names));
+        return names;
+    }
+
+    @Override
+    public Sendable getChild(String name) {
+        return m_commands.computeIfAbsent(name, opModeName -> new CommandSendable(new OpModeCommand(opModeName)));
+    }
+
+    @Override
+    public int getChildrenVersion() {
+        return OpModeCatalog.getVersion();
+    }
 
-public class OpModeControlSendable {
-    List<CommandSendable> m_opModes;
+    /**
+     * A command that inits an OpMode when scheduled, and is scheduled while that OpMode is active.
+     */
+    private static final class OpModeCommand implements Command {
+        private final String m_opModeName;
 
-    public void post(String key, AnnounceMethod announceMethod, SendableBuilder builder) {
-        m_opModes = new ArrayList<>();
+        private OpModeCommand(String opModeName) {
+            this.m_opModeName = opModeName;
+        }
 
-        for (String teleOpNames :
-                OpModeRegistrarSendable.collectTeleopNames(OpModeRegistrarSendable.collectOpModesMeta().stream())) {
-            m_opModes.add(new CommandSendable(new Command() {
-                @Override
-                public Set<Subsystem> getRequirements() {
-                    return Collections.emptySet();
-                }
+        @Override
+        public String getName() {
+            return m_opModeName;
+        }
 
-                @Override
-                public void execute() {
-                    OpModeController.getOpModeManager().initOpMode(teleOpNames);
-                }
+        @Override
+        public Set<Subsystem> getRequirements() {
+            return Collections.emptySet();
+        }
 
+        @Override
+        public boolean runsWhenDisabled() {
+            return true;
+        }
 
-                @Override
-                public void cancel() {
-                    OpModeController.getOpModeManager().stopActiveOpMode();
-                }
-            }));
+        @Override
+        public void schedule() {
+            OpModeManagerImpl opModeManager = OpModeController.getOpModeManager();
+            if (opModeManager != null) opModeManager.initOpMode(m_opModeName);
         }
 
+        @Override
+        public boolean isScheduled() {
+            OpModeManagerImpl opModeManager = OpModeController.getOpModeManager();
+            return opModeManager != null && m_opModeName.equals(opModeManager.getActiveOpModeName());
+        }
 
-        for (CommandSendable sendable :
-                m_opModes) {
-            builder.post(key + "/" + sendable.getCommandName(), announceMethod);
+        @Override
+        public void cancel() {
+            OpModeManagerImpl opModeManager = OpModeController.getOpModeManager();
+            if (opModeManager != null) opModeManager.stopActiveOpMode();
         }
     }
 }
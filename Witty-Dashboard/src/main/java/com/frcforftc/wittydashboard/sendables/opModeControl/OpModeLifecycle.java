@@ -0,0 +1,260 @@
+package com.frcforftc.wittydashboard.sendables.opModeControl;
+
+import com.frcforftc.wittydashboard.WittyDashboard;
+import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerImpl;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tracks the lifecycle of the active OpMode and handles the init, start and stop requests of the dashboard.
+ * <p>
+ * A request is a string array of {@code [sequence, action, OpMode name]}, where the action is one of
+ * {@link #ACTION_INIT}, {@link #ACTION_START} and {@link #ACTION_STOP} and the name is only read by init.
+ * A request is handled as soon as it arrives. It is acknowledged as a double array of
+ * {@code [sequence, status, received time, completed time]}, first as accepted or rejected when it arrives,
+ * then as completed once the OpMode manager reported the transition it asked for.
+ * A request without an action is rejected, and one whose sequence is not a number is rejected with a NaN sequence.
+ * A request equal to the last one is not handled again, only its acknowledgement is sent again, so a client that
+ * missed it can resend. A request that reuses the last sequence with another action or OpMode, as a restarted client
+ * counting from the start again does, is handled as a new request.
+ * Times are in microseconds in the time base of the dashboard, see {@link WittyDashboard#toDashboardTimeMicros(long)},
+ * the completed time is NaN until then.
+ * <p>
+ * The state is driven by the notifications of the OpMode manager, so OpModes run from the Driver Station are
+ * tracked as well, and every change is pushed to the listeners right away instead of waiting to be polled.
+ */
+public final class OpModeLifecycle {
+    public static final String ACTION_INIT = "init";
+    public static final String ACTION_START = "start";
+    public static final String ACTION_STOP = "stop";
+
+    public static final double ACK_REJECTED = -1;
+    public static final double ACK_ACCEPTED = 1;
+    public static final double ACK_COMPLETED = 2;
+
+    /**
+     * The states of the active OpMode.
+     */
+    public enum State {
+        STOPPED,
+        INIT,
+        RUNNING
+    }
+
+    private static final CopyOnWriteArrayList<Runnable> m_listeners = new CopyOnWriteArrayList<>();
+    private static State m_state = State.STOPPED;
+    private static String m_activeOpMode = "";
+    private static double m_stateTimeMicros = Double.NaN;
+    private static String[] m_lastRequest = new String[0];
+    private static String m_pendingAction;
+    private static String m_pendingOpMode;
+    private static double[] m_ack = new double[0];
+    private static volatile int m_stateVersion = 0;
+    private static volatile int m_ackVersion = 0;
+    private static volatile int m_requestVersion = 0;
+
+    private OpModeLifecycle() {
+    }
+
+    /**
+     * Adds a function called on every change of the state or of the acknowledgement, on the thread that changed it.
+     *
+     * @param listener the listener, which must not block
+     */
+    public static void addListener(Runnable listener) {
+        m_listeners.add(listener);
+    }
+
+    public static void removeListener(Runnable listener) {
+        m_listeners.remove(listener);
+    }
+
+    /**
+     * Handles a request of the dashboard, only acknowledging it again if it is equal to the last handled one.
+     *
+     * @param request the request as {@code [sequence, action, OpMode name]}
+     */
+    public static void request(String[] request) {
+        long received = System.nanoTime();
+
+        synchronized (OpModeLifecycle.class) {
+            if (request.length >= 2 && Arrays.equals(request, m_lastRequest)) {
+                // Only the acknowledgement is sent again, the Request topic is not, so its echo cannot loop
+                m_ackVersion++;
+            } else {
+                acknowledge(request, received);
+            }
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Handles a request that differs from the last one, and replaces the acknowledgement with its own.
+     * Must be called while holding the lock of the class.
+     */
+    private static void acknowledge(String[] request, long received) {
+        // A sequence that is not a number is still acknowledged, as rejected with a NaN sequence
+        double sequenceNumber;
+        try {
+            sequenceNumber = request.length > 0 ? Double.parseDouble(request[0]) : Double.NaN;
+        } catch (NumberFormatException e) {
+            sequenceNumber = Double.NaN;
+        }
+
+        String error;
+        if (request.length < 2) {
+            error = "malformed request " + Arrays.toString(request);
+        } else if (Double.isNaN(sequenceNumber)) {
+            error = "malformed sequence";
+        } else {
+            m_lastRequest = request.clone();
+            m_requestVersion++;
+            error = apply(request[1], request.length > 2 ? request[2] : "");
+        }
+
+        if (error != null) {
+            RobotLog.ww("WittyDashboard", String.format("Rejected OpMode request %s: %s", request.length > 0 ? request[0] : "", error));
+        }
+
+        m_ack = new double[]{
+                sequenceNumber,
+                error == null ? ACK_ACCEPTED : ACK_REJECTED,
+                WittyDashboard.toDashboardTimeMicros(received),
+                Double.NaN
+        };
+        m_ackVersion++;
+    }
+
+    /**
+     * Asks the OpMode manager for the transition of an action, which it performs on the event loop.
+     *
+     * @return the reason the action was rejected, or null if it was accepted
+     */
+    private static String apply(String action, String opModeName) {
+        OpModeManagerImpl opModeManager = OpModeController.getOpModeManager();
+        if (opModeManager == null) return "no event loop";
+
+        switch (action) {
+            case ACTION_INIT -> {
+                if (!Arrays.asList(OpModeCatalog.getOpModeNames()).contains(opModeName)) {
+                    return "unknown OpMode " + opModeName;
+                }
+                opModeManager.initOpMode(opModeName);
+            }
+            case ACTION_START -> {
+                if (m_state != State.INIT) return "no OpMode is initialized";
+                opModeManager.startActiveOpMode();
+            }
+            case ACTION_STOP -> {
+                if (m_state == State.STOPPED) return "no OpMode is active";
+                opModeManager.stopActiveOpMode();
+            }
+            default -> {
+                return "unknown action " + action;
+            }
+        }
+
+        m_pendingAction = action;
+        m_pendingOpMode = opModeName;
+        return null;
+    }
+
+    /**
+     * Records a transition reported by the OpMode manager, and completes the pending request it fulfills.
+     *
+     * @param state      the new state
+     * @param opModeName the name of the OpMode
+     */
+    public static void onTransition(State state, String opModeName) {
+        long now = System.nanoTime();
+        // The manager runs its default OpMode whenever no other one is active, which is the stopped state
+        if (OpModeManagerImpl.DEFAULT_OP_MODE_NAME.equals(opModeName)) return;
+
+        synchronized (OpModeLifecycle.class) {
+            m_state = state;
+            m_activeOpMode = state == State.STOPPED ? "" : opModeName;
+            m_stateTimeMicros = WittyDashboard.toDashboardTimeMicros(now);
+            m_stateVersion++;
+
+            if (m_pendingAction != null && completes(m_pendingAction, state, opModeName)) {
+                double[] ack = m_ack.clone();
+                ack[1] = ACK_COMPLETED;
+                ack[3] = m_stateTimeMicros;
+                m_ack = ack;
+                m_ackVersion++;
+                m_pendingAction = null;
+            }
+        }
+        notifyListeners();
+    }
+
+    private static boolean completes(String action, State state, String opModeName) {
+        return switch (action) {
+            case ACTION_INIT -> state == State.INIT && opModeName.equals(m_pendingOpMode);
+            case ACTION_START -> state == State.RUNNING;
+            case ACTION_STOP -> state == State.STOPPED;
+            default -> false;
+        };
+    }
+
+    private static void notifyListeners() {
+        for (Runnable listener : m_listeners) {
+            listener.run();
+        }
+    }
+
+    public static synchronized State getState() {
+        return m_state;
+    }
+
+    /**
+     * @return the name of the active OpMode, or an empty string when stopped
+     */
+    public static synchronized String getActiveOpMode() {
+        return m_activeOpMode;
+    }
+
+    /**
+     * @return the dashboard time of the last transition in microseconds, or NaN before the first one
+     */
+    public static synchronized double getStateTimeMicros() {
+        return m_stateTimeMicros;
+    }
+
+    /**
+     * @return the last request that was handled, must not be modified
+     */
+    public static synchronized String[] getLastRequest() {
+        return m_lastRequest;
+    }
+
+    /**
+     * @return the acknowledgement of the last request, must not be modified
+     */
+    public static synchronized double[] getAck() {
+        return m_ack;
+    }
+
+    /**
+     * @return a version that changes with the state
+     */
+    public static int getStateVersion() {
+        return m_stateVersion;
+    }
+
+    /**
+     * @return a version that changes with the acknowledgement, including when it is sent again for a repeated request
+     */
+    public static int getAckVersion() {
+        return m_ackVersion;
+    }
+
+    /**
+     * @return a version that changes with the last handled request
+     */
+    public static int getRequestVersion() {
+        return m_requestVersion;
+    }
+}
@@ -1,7 +1,5 @@
 package com.frcforftc.wittydashboard.sendables.opModeControl;
 
-import android.annotation.SuppressLint;
-
 import com.frcforftc.wittydashboard.sendables.Sendable;
 import com.frcforftc.wittydashboard.sendables.SendableBuilder;
 
@@ -13,17 +11,13 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 
+/**
+ * Publishes the current OpMode and the registered ones.
+ * The registered OpModes come from the {@link OpModeCatalog}, and are only sent again when the catalog changes.
+ */
 public class OpModeRegistrarSendable implements Sendable {
-    @SuppressLint("StaticFieldLeak")
-    private final List<String> m_opModeNames;
-
-
     public OpModeRegistrarSendable() {
-        if (OpModeController.getEventLoop() == null) {
-            // Handle initialization error
-        }
-
-        m_opModeNames = collectOpModeNames();
+        OpModeCatalog.load();
     }
 
     public static List<OpModeMeta> collectOpModesMeta() {
@@ -56,9 +50,10 @@ public class OpModeRegistrarSendable implements Sendable {
 
     @Override
     public void initSendable(SendableBuilder builder) {
-        List<OpModeMeta> opModeMetaList = collectOpModesMeta();
         builder.addStringProperty("Current OpMode", this::getCurrentOpModeName, null);
-        builder.addStringArrayProperty("Registered TeleOp", () -> collectTeleopNames(opModeMetaList.stream()).toArray(new String[0]), null);
-        builder.addStringArrayProperty("Registered Autonomous", () -> collectAutonomousNames(opModeMetaList.stream()).toArray(new String[0]), null);
+        builder.addStringArrayProperty("Registered TeleOp", OpModeCatalog::getTeleOpNames, null);
+        builder.addStringArrayProperty("Registered Autonomous", OpModeCatalog::getAutonomousNames, null);
+        builder.setRetained("Registered TeleOp", OpModeCatalog::getVersion);
+        builder.setRetained("Registered Autonomous", OpModeCatalog::getVersion);
     }
 }
@@ -41,6 +41,13 @@ public class OpModeSendable implements Sendable {
         }
     }
 
+    /**
+     * @return the configured devices of the OpMode by name, or null if the hardware map has none
+     */
+    public Map<String, List<HardwareDevice>> getDevices() {
+        return hardwareMap;
+    }
+
     /**
      * Initializes the SendableBuilder for the SmartDashboard.
      *
@@ -63,8 +70,8 @@ public class OpModeSendable implements Sendable {
                         return hardwareMap.keySet().toArray(new String[0]);
                     }, null);
 
-            builder.addBooleanProperty("Is Started", () -> isStarted, null);
-            builder.addIntProperty("Runtime", () -> (int) m_opMode.time, null);
+            builder.addPrimitiveBooleanProperty("Is Started", () -> isStarted, null);
+            builder.addPrimitiveIntProperty("Runtime", () -> (int) m_opMode.time, null);
         } catch (NoSuchFieldException | IllegalAccessException e) {
             throw new RuntimeException("Failed to initialize RobotSendable", e);
         }
@@ -0,0 +1,145 @@
+package com.frcforftc.wittydashboard.sendables.vision;
+
+import com.frcforftc.wittydashboard.WittyDashboard;
+import com.frcforftc.wittydashboard.sendables.Sendable;
+import com.frcforftc.wittydashboard.sendables.SendableBuilder;
+
+import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+import org.firstinspires.ftc.vision.apriltag.AprilTagPoseFtc;
+import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
+import org.opencv.core.Point;
+
+import java.util.List;
+
+/**
+ * Publishes the detections of an {@link AprilTagProcessor} as packed primitive arrays, once per processed frame.
+ * <p>
+ * For every detection, in the same order in every array:
+ * <ul>
+ *     <li>IDs: the tag id</li>
+ *     <li>Centers: {@code [x, y]} of the center in pixels</li>
+ *     <li>Corners: {@code [x0, y0, x1, y1, x2, y2, x3, y3]} of the corners in pixels</li>
+ *     <li>Poses: {@code [x, y, z, yaw, pitch, roll]} of the tag relative to the camera on the robot, as in
+ *     {@link AprilTagDetection#ftcPose}, in the units of the processor, or NaN for tags without metadata</li>
+ * </ul>
+ * The capture time of the frame is published in the time base of the dashboard, which a client maps to the time base
+ * of the NT4 server through {@link WittyDashboard#CLOCK_TOPIC} to compute the capture to dashboard latency,
+ * together with the latency from the capture until the detections were published.
+ * <p>
+ * The processor replaces its detection list on every frame, so a new frame is detected by comparing the list
+ * it returns against the last one, which only reads a reference and does no work on the vision thread.
+ * The arrays are packed into buffers kept per detection count and are only sent when a new frame was processed.
+ */
+public class AprilTagSendable implements Sendable {
+    private static final int CACHED_COUNTS = 16;
+
+    private final AprilTagProcessor m_processor;
+    private final int[][] m_idBuffers = new int[CACHED_COUNTS][];
+    private final double[][] m_centerBuffers = new double[CACHED_COUNTS][];
+    private final double[][] m_cornerBuffers = new double[CACHED_COUNTS][];
+    private final double[][] m_poseBuffers = new double[CACHED_COUNTS][];
+    private List<AprilTagDetection> m_lastDetections;
+    private int m_frameCount = 0;
+    private int[] m_ids = new int[0];
+    private double[] m_centers = new double[0];
+    private double[] m_corners = new double[0];
+    private double[] m_poses = new double[0];
+    private double m_captureTimeMicros = Double.NaN;
+    private double m_latencyMs = Double.NaN;
+
+    public AprilTagSendable(AprilTagProcessor processor) {
+        this.m_processor = processor;
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("AprilTags");
+        builder.setUpdatePeriod(10);
+        builder.setUpdateTable(this::update);
+
+        builder.addIntArrayProperty("IDs", () -> m_ids, null);
+        builder.addDoubleArrayProperty("Centers", () -> m_centers, null);
+        builder.addDoubleArrayProperty("Corners", () -> m_corners, null);
+        builder.addDoubleArrayProperty("Poses", () -> m_poses, null);
+        builder.addPrimitiveDoubleProperty("Capture Time (us)", () -> m_captureTimeMicros, null);
+        builder.addPrimitiveDoubleProperty("Latency (ms)", () -> m_latencyMs, null);
+        builder.addPrimitiveIntProperty("Frame Count", () -> m_frameCount, null);
+
+        for (String key : new String[]{"IDs", "Centers", "Corners", "Poses", "Capture Time (us)", "Latency (ms)", "Frame Count"}) {
+            builder.setRetained(key, () -> m_frameCount);
+        }
+    }
+
+    /**
+     * Packs the detections of the latest frame if the processor processed a frame since the last post.
+     */
+    private void update() {
+        List<AprilTagDetection> detections = m_processor.getDetections();
+        if (detections == null || detections == m_lastDetections) return;
+        m_lastDetections = detections;
+
+        long now = System.nanoTime();
+        int count = detections.size();
+        int[] ids = intBuffer(m_idBuffers, count);
+        double[] centers = doubleBuffer(m_centerBuffers, count, 2);
+        double[] corners = doubleBuffer(m_cornerBuffers, count, 8);
+        double[] poses = doubleBuffer(m_poseBuffers, count, 6);
+
+        for (int i = 0; i < count; i++) {
+            AprilTagDetection detection = detections.get(i);
+            ids[i] = detection.id;
+            centers[2 * i] = detection.center.x;
+            centers[2 * i + 1] = detection.center.y;
+
+            for (int j = 0; j < 4; j++) {
+                Point corner = detection.corners[j];
+                corners[8 * i + 2 * j] = corner.x;
+                corners[8 * i + 2 * j + 1] = corner.y;
+            }
+
+            AprilTagPoseFtc pose = detection.ftcPose;
+            poses[6 * i] = pose == null ? Double.NaN : pose.x;
+            poses[6 * i + 1] = pose == null ? Double.NaN : pose.y;
+            poses[6 * i + 2] = pose == null ? Double.NaN : pose.z;
+            poses[6 * i + 3] = pose == null ? Double.NaN : pose.yaw;
+            poses[6 * i + 4] = pose == null ? Double.NaN : pose.pitch;
+            poses[6 * i + 5] = pose == null ? Double.NaN : pose.roll;
+        }
+
+        m_ids = ids;
+        m_centers = centers;
+        m_corners = corners;
+        m_poses = poses;
+
+        // An empty frame carries no capture time
+        if (count > 0) {
+            long captureNanos = detections.get(0).frameAcquisitionNanoTime;
+            m_captureTimeMicros = WittyDashboard.toDashboardTimeMicros(captureNanos);
+            m_latencyMs = (now - captureNanos) / 1e6;
+        } else {
+            m_captureTimeMicros = Double.NaN;
+            m_latencyMs = Double.NaN;
+        }
+        m_frameCount++;
+    }
+
+    /**
+     * Gets the buffer kept for a detection count, allocated the first time that count is seen.
+     */
+    private static int[] intBuffer(int[][] buffers, int count) {
+        if (count >= buffers.length) return new int[count];
+
+        if (buffers[count] == null) buffers[count] = new int[count];
+        return buffers[count];
+    }
+
+    /**
+     * Gets the buffer kept for a detection count, holding stride values per detection.
+     */
+    private static double[] doubleBuffer(double[][] buffers, int count, int stride) {
+        if (count >= buffers.length) return new double[count * stride];
+
+        if (buffers[count] == null) buffers[count] = new double[count * stride];
+        return buffers[count];
+    }
+}
@@ -1,16 +1,339 @@
 package com.frcforftc.wittydashboard.sendables.vision;
 
+import android.graphics.Bitmap;
+
+import com.frcforftc.wittydashboard.WittyDashboard;
 import com.frcforftc.wittydashboard.sendables.Sendable;
 import com.frcforftc.wittydashboard.sendables.SendableBuilder;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.function.Continuation;
+import org.firstinspires.ftc.robotcore.external.stream.CameraStreamSource;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 
 /**
  * Represents a camera preview image as a Sendable for sending over NetworkTables.
+ * <p>
+ * The frames of a {@link CameraStreamSource}, such as a {@code VisionPortal}, are served as an MJPEG stream over HTTP,
+ * and the URLs of the stream are published under {@code /CameraPublisher/<name>/streams} the way CameraServer does,
+ * so dashboards that show CameraServer streams find it. Frames are only requested and encoded while a client is connected,
+ * on a dedicated thread. A frame that arrives before the previous one was encoded replaces it instead of being queued.
+ * <p>
+ * The stream stays within a bandwidth budget shared by its clients, each of which gets the quality, resolution and
+ * frame rate its share and its connection allow, see {@link MjpegServer}. The encoder encodes each frame once per
+ * quality level in use. The frame rate, the bytes sent per second and the encode time are published once per second.
  */
 public class CameraPreview implements Sendable {
-    // TODO
+    /**
+     * The port of the first CameraServer stream.
+     */
+    public static final int DEFAULT_PORT = 1181;
+    public static final int DEFAULT_QUALITY = 50;
+    public static final int DEFAULT_MAX_FPS = 15;
+    /**
+     * The default bandwidth budget of the stream, 2 Mbit/s, well below what the field Wi-Fi carries.
+     */
+    public static final long DEFAULT_BUDGET_BYTES_PER_SECOND = 250_000;
+
+    private static final long STATS_PERIOD_MS = 1000;
+
+    private static final long IDLE_PERIOD_MS = 100;
+    private static final long FRAME_TIMEOUT_MS = 500;
+
+    private final String m_name;
+    private final CameraStreamSource m_source;
+    private final int m_port;
+    private final AtomicReference<Bitmap> m_pendingFrame = new AtomicReference<>();
+    private final Runnable m_stopHook = this::stop;
+    private volatile int m_quality = DEFAULT_QUALITY;
+    private volatile int m_maxFps = DEFAULT_MAX_FPS;
+    private volatile long m_budgetBytesPerSecond = DEFAULT_BUDGET_BYTES_PER_SECOND;
+    private volatile int m_droppedFrames = 0;
+    private volatile double m_fps = 0;
+    private volatile double m_bytesPerSecond = 0;
+    private volatile double m_encodeTimeMs = 0;
+    private volatile int[] m_clientLevels = new int[0];
+    private volatile String[] m_streams = new String[0];
+    private volatile MjpegServer m_server;
+    private Thread m_encoder;
+
+    public CameraPreview(String name, CameraStreamSource source) {
+        this(name, source, DEFAULT_PORT);
+    }
+
+    /**
+     * @param name   the name of the camera under {@code /CameraPublisher}
+     * @param source the source of the frames
+     * @param port   the port of the MJPEG server
+     */
+    public CameraPreview(String name, CameraStreamSource source, int port) {
+        this.m_name = name;
+        this.m_source = source;
+        this.m_port = port;
+    }
+
     @Override
     public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("CameraPreview");
+        builder.addStringArrayProperty("Streams", () -> m_streams, null);
+        builder.addPrimitiveIntProperty("Clients", this::getClientCount, null);
+        builder.addPrimitiveIntProperty("Dropped Frames", () -> m_droppedFrames, null);
+        builder.addPrimitiveDoubleProperty("FPS", () -> m_fps, null);
+        builder.addPrimitiveDoubleProperty("Bytes Per Second", () -> m_bytesPerSecond, null);
+        builder.addPrimitiveDoubleProperty("Encode Time (ms)", () -> m_encodeTimeMs, null);
+        builder.addIntArrayProperty("Client Levels", () -> m_clientLevels, null);
+        builder.setUpdatePeriod("FPS", STATS_PERIOD_MS);
+        builder.setUpdatePeriod("Bytes Per Second", STATS_PERIOD_MS);
+        builder.setUpdatePeriod("Encode Time (ms)", STATS_PERIOD_MS);
+        builder.setUpdatePeriod("Client Levels", STATS_PERIOD_MS);
+    }
+
+    /**
+     * Sets the highest JPEG quality of the stream, used by the clients with enough bandwidth.
+     *
+     * @param quality the quality, from 0 to 100
+     */
+    public void setQuality(int quality) {
+        if (quality < 0 || quality > 100) {
+            throw new IllegalArgumentException("Invalid quality: " + quality);
+        }
+        m_quality = quality;
+    }
+
+    /**
+     * Sets the highest frame rate the frames are requested at.
+     *
+     * @param maxFps the frame rate in frames per second
+     */
+    public void setMaxFps(int maxFps) {
+        if (maxFps <= 0) {
+            throw new IllegalArgumentException("Invalid frame rate: " + maxFps);
+        }
+        m_maxFps = maxFps;
+        MjpegServer server = m_server;
+        if (server != null) server.setMaxFps(maxFps);
+    }
+
+    /**
+     * Sets the bandwidth the stream may use, shared equally by its clients.
+     *
+     * @param bytesPerSecond the budget in bytes per second
+     */
+    public void setBandwidthBudget(long bytesPerSecond) {
+        if (bytesPerSecond <= 0) {
+            throw new IllegalArgumentException("Invalid bandwidth budget: " + bytesPerSecond);
+        }
+        m_budgetBytesPerSecond = bytesPerSecond;
+        MjpegServer server = m_server;
+        if (server != null) server.setBudget(bytesPerSecond);
+    }
+
+    /**
+     * @return the amount of clients watching the stream
+     */
+    public int getClientCount() {
+        MjpegServer server = m_server;
+        return server == null ? 0 : server.getClientCount();
+    }
+
+    /**
+     * @return the URLs of the stream, one per network address of the robot
+     */
+    public String[] getStreams() {
+        return m_streams;
+    }
+
+    /**
+     * Starts the MJPEG server and the encoder thread, and publishes the stream URLs.
+     * The stream is stopped by {@link WittyDashboard#stop()} if it was not stopped before, so it does not outlive the OpMode.
+     *
+     * @throws RuntimeException if the port cannot be bound
+     */
+    public synchronized void start() {
+        if (m_server != null) return;
+
+        try {
+            m_server = new MjpegServer(m_port, m_budgetBytesPerSecond, m_maxFps);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start the camera stream on port " + m_port, e);
+        }
+
+        m_streams = findStreams(m_server.getPort());
+        WittyDashboard.publishStringArray("/CameraPublisher/" + m_name + "/streams").set(m_streams);
+
+        MjpegServer server = m_server;
+        m_encoder = new Thread(() -> runEncoder(server), "WittyDashboard Camera " + m_name);
+        m_encoder.setDaemon(true);
+        // The stream must never delay the loop or the publisher thread
+        m_encoder.setPriority(Thread.MIN_PRIORITY);
+        m_encoder.start();
+        WittyDashboard.addStopHook(m_stopHook);
+    }
+
+    /**
+     * Stops the encoder thread, waiting for it to finish, and disconnects the clients.
+     */
+    public synchronized void stop() {
+        if (m_server == null) return;
+
+        WittyDashboard.removeStopHook(m_stopHook);
+        Thread encoder = m_encoder;
+        m_encoder = null;
+        encoder.interrupt();
+        boolean interrupted = false;
+        while (encoder.isAlive()) {
+            try {
+                encoder.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+
+        m_server.close();
+        m_server = null;
+        recyclePendingFrame();
+    }
+
+    private void recyclePendingFrame() {
+        Bitmap pending = m_pendingFrame.getAndSet(null);
+        if (pending != null) pending.recycle();
+    }
+
+    private void runEncoder(MjpegServer server) {
+        Thread encoder = Thread.currentThread();
+        long deadline = System.nanoTime();
+        long statsStart = deadline;
+        long statsBytes = server.getBytesSent();
+        int statsFrames = 0;
+        long statsEncodeNanos = 0;
+
+        while (!encoder.isInterrupted()) {
+            long now = System.nanoTime();
+            if (now - statsStart >= TimeUnit.MILLISECONDS.toNanos(STATS_PERIOD_MS)) {
+                double seconds = (now - statsStart) / 1e9;
+                long bytes = server.getBytesSent();
+                m_fps = statsFrames / seconds;
+                m_bytesPerSecond = (bytes - statsBytes) / seconds;
+                m_encodeTimeMs = statsFrames == 0 ? 0 : statsEncodeNanos / 1e6 / statsFrames;
+                m_clientLevels = server.getClientLevels();
+
+                statsStart = now;
+                statsBytes = bytes;
+                statsFrames = 0;
+                statsEncodeNanos = 0;
+            }
+
+            int levels = server.getRequestedLevels();
+            if (levels == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(IDLE_PERIOD_MS));
+                deadline = System.nanoTime();
+                continue;
+            }
+
+            long delay = deadline - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+                continue;
+            }
+            deadline += TimeUnit.SECONDS.toNanos(1) / m_maxFps;
+            // Fell behind, pace from now on instead of bursting
+            if (deadline - System.nanoTime() < 0) deadline = System.nanoTime();
+
+            m_source.getFrameBitmap(Continuation.createTrivial(bitmap -> {
+                Bitmap stale = m_pendingFrame.getAndSet(bitmap);
+                if (stale != null) {
+                    stale.recycle();
+                    m_droppedFrames++;
+                }
+                // A frame delivered after the stream stopped is never taken by the encoder
+                if (m_server != server) recyclePendingFrame();
+                LockSupport.unpark(encoder);
+            }));
+
+            Bitmap bitmap = awaitFrame();
+            if (bitmap == null) continue;
+
+            long encodeStart = System.nanoTime();
+            for (int level = 0; level < MjpegServer.LEVEL_SCALES.length; level++) {
+                if ((levels & (1 << level)) != 0) encode(server, bitmap, level);
+            }
+            bitmap.recycle();
+            statsEncodeNanos += System.nanoTime() - encodeStart;
+            statsFrames++;
+        }
+    }
+
+    private void encode(MjpegServer server, Bitmap bitmap, int level) {
+        float scale = MjpegServer.LEVEL_SCALES[level];
+        int quality = Math.max(1, Math.round(m_quality * MjpegServer.LEVEL_QUALITIES[level]));
+
+        Bitmap scaled = bitmap;
+        if (scale < 1) {
+            scaled = Bitmap.createScaledBitmap(bitmap, Math.max(1, Math.round(bitmap.getWidth() * scale)),
+                    Math.max(1, Math.round(bitmap.getHeight() * scale)), true);
+        }
+
+        MjpegServer.Frame frame = server.obtainFrame();
+        boolean encoded = scaled.compress(Bitmap.CompressFormat.JPEG, quality, frame);
+        if (scaled != bitmap) scaled.recycle();
+
+        if (encoded) {
+            server.publishFrame(level, frame);
+        } else {
+            server.recycleFrame(frame);
+        }
+    }
+
+    /**
+     * Waits for the frame requested from the source, which delivers it on its own thread.
+     *
+     * @return the frame, or null if the source did not deliver it in time
+     */
+    private Bitmap awaitFrame() {
+        long timeout = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FRAME_TIMEOUT_MS);
+        while (!Thread.currentThread().isInterrupted()) {
+            Bitmap bitmap = m_pendingFrame.getAndSet(null);
+            if (bitmap != null) return bitmap;
+
+            long remaining = timeout - System.nanoTime();
+            if (remaining <= 0) return null;
+            LockSupport.parkNanos(remaining);
+        }
+        return null;
+    }
+
+    /**
+     * Builds the CameraServer stream URLs of the server, one per IPv4 address of the robot.
+     */
+    private static String[] findStreams(int port) {
+        List<String> streams = new ArrayList<>();
+        try {
+            for (NetworkInterface networkInterface : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+                if (!networkInterface.isUp() || networkInterface.isLoopback()) continue;
+
+                for (InetAddress address : Collections.list(networkInterface.getInetAddresses())) {
+                    if (address instanceof Inet4Address) {
+                        streams.add("mjpg:http://" + address.getHostAddress() + ":" + port + "/?action=stream");
+                    }
+                }
+            }
+        } catch (SocketException e) {
+            RobotLog.ee("WittyDashboard", e, "Failed to list the network addresses of the camera stream");
+        }
 
+        return streams.toArray(new String[0]);
     }
 }
@@ -0,0 +1,383 @@
+package com.frcforftc.wittydashboard.sendables.vision;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A minimal HTTP server streaming JPEG frames as {@code multipart/x-mixed-replace}, the MJPEG format CameraServer uses.
+ * <p>
+ * Frames are encoded into pooled buffers that are reference counted by the clients sending them.
+ * Every client always sends the latest frame, and a client that is slower than the encoder skips the frames
+ * published while it was sending instead of queueing them.
+ * <p>
+ * Every client streams at its own level of a ladder of decreasing quality and resolution, and the encoder encodes
+ * each frame once per level in use. Each client gets an equal share of the bandwidth budget, which paces its frames.
+ * Its level is lowered when its share only allows a low frame rate, or when its writes block for a large part of the
+ * frame interval, which is how a full send queue and a long round trip show up on a blocking socket.
+ * The level is raised again when the share leaves room for larger frames and the writes do not block.
+ * The sockets use the background traffic class and a small send buffer, so frames never sit in front of other traffic.
+ */
+final class MjpegServer implements Closeable {
+    private static final String BOUNDARY = "boundarydonotcross";
+    private static final byte[] RESPONSE_HEADER = ("HTTP/1.0 200 OK\r\n"
+            + "Connection: close\r\n"
+            + "Server: WittyDashboard\r\n"
+            + "Cache-Control: no-store, no-cache, must-revalidate, pre-check=0, post-check=0, max-age=0\r\n"
+            + "Pragma: no-cache\r\n"
+            + "Access-Control-Allow-Origin: *\r\n"
+            + "Content-Type: multipart/x-mixed-replace;boundary=" + BOUNDARY + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The resolution scale of each level, from the best to the cheapest.
+     */
+    static final float[] LEVEL_SCALES = {1, 1, 0.75f, 0.75f, 0.5f, 0.5f};
+    /**
+     * The fraction of the highest JPEG quality used by each level.
+     */
+    static final float[] LEVEL_QUALITIES = {1, 0.7f, 0.7f, 0.5f, 0.5f, 0.3f};
+
+    /**
+     * The traffic class of the stream, CS1, which Wi-Fi multimedia maps to the background access category.
+     */
+    private static final int TRAFFIC_CLASS_BACKGROUND = 0x20;
+    private static final int SEND_BUFFER_SIZE = 32 * 1024;
+    /**
+     * The longest time a client may take to send its request, so a silent connection does not hold a thread.
+     */
+    private static final int REQUEST_TIMEOUT_MS = 2000;
+    private static final long LEVEL_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double BLOCKED_HIGH = 0.5;
+    private static final double BLOCKED_LOW = 0.1;
+    private static final double SMOOTHING = 0.2;
+
+    private final ServerSocket m_serverSocket;
+    private final List<Client> m_clients = new ArrayList<>();
+    private final ArrayDeque<Frame> m_freeFrames = new ArrayDeque<>();
+    private final Frame[] m_latest = new Frame[LEVEL_SCALES.length];
+    private final AtomicLong m_bytesSent = new AtomicLong();
+    private long m_sequence = 0;
+    private volatile boolean m_running = true;
+    private volatile long m_budgetBytesPerSecond;
+    private volatile int m_maxFps;
+
+    /**
+     * An encoded frame, written by the encoder and then shared by the clients sending it.
+     */
+    static final class Frame extends ByteArrayOutputStream {
+        private int m_refs = 0;
+        private long m_sequence;
+
+        private Frame() {
+            super(64 * 1024);
+        }
+
+        byte[] getBuffer() {
+            return buf;
+        }
+    }
+
+    /**
+     * A connected client and the state of its rate control.
+     */
+    private final class Client {
+        private final Socket m_socket;
+        private volatile int m_level = 1;
+        private double m_frameBytes = 0;
+        private double m_blockedRatio = 0;
+        private long m_lastSendNanos;
+        private long m_levelChangeNanos;
+
+        private Client(Socket socket) {
+            this.m_socket = socket;
+            this.m_lastSendNanos = System.nanoTime();
+            this.m_levelChangeNanos = m_lastSendNanos;
+        }
+
+        /**
+         * Updates the measurements with a sent frame and picks the level of the next frames.
+         *
+         * @return the time before which the next frame must not be sent, to stay within the bandwidth share
+         */
+        private long onSent(int bytes, long startNanos, long endNanos) {
+            long intervalNanos = Math.max(1, endNanos - m_lastSendNanos);
+            m_lastSendNanos = endNanos;
+
+            double blockedRatio = Math.min(1, (double) (endNanos - startNanos) / intervalNanos);
+            m_blockedRatio += SMOOTHING * (blockedRatio - m_blockedRatio);
+            m_frameBytes = m_frameBytes == 0 ? bytes : m_frameBytes + SMOOTHING * (bytes - m_frameBytes);
+
+            long shareBytesPerSecond = getShareBytesPerSecond();
+            double affordableFps = shareBytesPerSecond / m_frameBytes;
+            int maxFps = m_maxFps;
+
+            if (endNanos - m_levelChangeNanos >= LEVEL_COOLDOWN_NANOS) {
+                int level = m_level;
+                if ((m_blockedRatio > BLOCKED_HIGH || affordableFps < maxFps / 2.0) && level < LEVEL_SCALES.length - 1) {
+                    level++;
+                } else if (m_blockedRatio < BLOCKED_LOW && affordableFps > maxFps * 1.5 && level > 0) {
+                    level--;
+                }
+
+                if (level != m_level) {
+                    m_level = level;
+                    m_levelChangeNanos = endNanos;
+                }
+            }
+
+            return startNanos + (long) (bytes * 1e9 / shareBytesPerSecond);
+        }
+    }
+
+    /**
+     * Binds the server and starts accepting clients.
+     *
+     * @param port                 the port to listen on
+     * @param budgetBytesPerSecond the bandwidth shared by all the clients
+     * @param maxFps               the frame rate of the encoder
+     * @throws IOException if the port cannot be bound
+     */
+    MjpegServer(int port, long budgetBytesPerSecond, int maxFps) throws IOException {
+        m_budgetBytesPerSecond = budgetBytesPerSecond;
+        m_maxFps = maxFps;
+        m_serverSocket = new ServerSocket(port);
+        Thread acceptThread = new Thread(this::runAccept, "WittyDashboard MJPEG");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    int getPort() {
+        return m_serverSocket.getLocalPort();
+    }
+
+    synchronized int getClientCount() {
+        return m_clients.size();
+    }
+
+    void setBudget(long budgetBytesPerSecond) {
+        m_budgetBytesPerSecond = budgetBytesPerSecond;
+    }
+
+    void setMaxFps(int maxFps) {
+        m_maxFps = maxFps;
+    }
+
+    private synchronized long getShareBytesPerSecond() {
+        return Math.max(1, m_budgetBytesPerSecond / Math.max(1, m_clients.size()));
+    }
+
+    /**
+     * @return the total amount of bytes sent to all the clients
+     */
+    long getBytesSent() {
+        return m_bytesSent.get();
+    }
+
+    /**
+     * @return a bit mask of the levels the connected clients stream at
+     */
+    synchronized int getRequestedLevels() {
+        int levels = 0;
+        for (Client client : m_clients) {
+            levels |= 1 << client.m_level;
+        }
+        return levels;
+    }
+
+    /**
+     * @return the level of each connected client
+     */
+    synchronized int[] getClientLevels() {
+        int[] levels = new int[m_clients.size()];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = m_clients.get(i).m_level;
+        }
+        return levels;
+    }
+
+    /**
+     * Takes a free buffer from the pool for the encoder, allocating one only when all of them are in use.
+     *
+     * @return an empty frame
+     */
+    synchronized Frame obtainFrame() {
+        Frame frame = m_freeFrames.poll();
+        if (frame == null) frame = new Frame();
+        frame.reset();
+        return frame;
+    }
+
+    /**
+     * Returns a frame the encoder did not publish to the pool.
+     */
+    synchronized void recycleFrame(Frame frame) {
+        m_freeFrames.push(frame);
+    }
+
+    /**
+     * Makes a frame the latest one of its level, releasing the previous one, and wakes up the waiting clients.
+     *
+     * @param level the level the frame was encoded at
+     * @param frame the encoded frame
+     */
+    synchronized void publishFrame(int level, Frame frame) {
+        if (m_latest[level] != null) release(m_latest[level]);
+        frame.m_refs = 1;
+        frame.m_sequence = ++m_sequence;
+        m_latest[level] = frame;
+        notifyAll();
+    }
+
+    /**
+     * Waits for a frame of the level of a client, newer than the last one it sent.
+     *
+     * @param client       the client
+     * @param lastSequence the sequence of the last frame the client sent
+     * @return the latest frame, which the client has to release, or null once the server is closed
+     */
+    private synchronized Frame awaitFrame(Client client, long lastSequence) throws InterruptedException {
+        Frame latest;
+        while (m_running && ((latest = m_latest[client.m_level]) == null || latest.m_sequence <= lastSequence)) {
+            wait();
+        }
+        if (!m_running) return null;
+
+        latest = m_latest[client.m_level];
+        latest.m_refs++;
+        return latest;
+    }
+
+    private synchronized void release(Frame frame) {
+        if (--frame.m_refs == 0) {
+            m_freeFrames.push(frame);
+        }
+    }
+
+    private void runAccept() {
+        while (m_running) {
+            try {
+                Socket socket = m_serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                socket.setTrafficClass(TRAFFIC_CLASS_BACKGROUND);
+                socket.setSendBufferSize(SEND_BUFFER_SIZE);
+                socket.setSoTimeout(REQUEST_TIMEOUT_MS);
+
+                Client client = new Client(socket);
+                Thread thread = new Thread(() -> runClient(client), "WittyDashboard MJPEG Client");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                thread.start();
+            } catch (IOException e) {
+                if (m_running) RobotLog.ee("WittyDashboard", e, "Failed to accept an MJPEG client");
+            }
+        }
+    }
+
+    private void runClient(Client client) {
+        Socket socket = client.m_socket;
+        try (Socket ignored = socket) {
+            skipRequest(socket.getInputStream());
+            socket.setSoTimeout(0);
+
+            OutputStream out = socket.getOutputStream();
+            out.write(RESPONSE_HEADER);
+
+            // Only a client that is being streamed to takes a share of the budget and requests a level
+            synchronized (this) {
+                if (!m_running) return;
+                m_clients.add(client);
+            }
+
+            long lastSequence = 0;
+            while (m_running) {
+                Frame frame = awaitFrame(client, lastSequence);
+                if (frame == null) break;
+
+                long nextSendNanos;
+                try {
+                    lastSequence = frame.m_sequence;
+                    long startNanos = System.nanoTime();
+                    byte[] header = ("--" + BOUNDARY + "\r\nContent-Type: image/jpeg\r\nContent-Length: " + frame.size() + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+                    out.write(header);
+                    out.write(frame.getBuffer(), 0, frame.size());
+                    out.write('\r');
+                    out.write('\n');
+                    out.flush();
+
+                    int bytes = header.length + frame.size() + 2;
+                    m_bytesSent.addAndGet(bytes);
+                    nextSendNanos = client.onSent(bytes, startNanos, System.nanoTime());
+                } finally {
+                    release(frame);
+                }
+
+                // Stays within the bandwidth share, the frames published meanwhile are skipped
+                long delay = nextSendNanos - System.nanoTime();
+                if (delay > 0) Thread.sleep(TimeUnit.NANOSECONDS.toMillis(delay), (int) (delay % 1000000));
+            }
+        } catch (SocketException e) {
+            // The client disconnected
+        } catch (SocketTimeoutException e) {
+            RobotLog.ww("WittyDashboard", "An MJPEG client did not send its request in time");
+        } catch (IOException e) {
+            RobotLog.ee("WittyDashboard", e, "Failed to stream to an MJPEG client");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                m_clients.remove(client);
+            }
+        }
+    }
+
+    /**
+     * Reads the request up to its empty line. Every path is answered with the stream.
+     */
+    private static void skipRequest(InputStream in) throws IOException {
+        int matched = 0;
+        while (matched < 4) {
+            int b = in.read();
+            if (b < 0) throw new SocketException("The client closed the connection");
+            matched = (b == (matched % 2 == 0 ? '\r' : '\n')) ? matched + 1 : (b == '\r' ? 1 : 0);
+        }
+    }
+
+    /**
+     * Stops accepting clients and disconnects the connected ones. A client still sending its request is dropped
+     * once it sent it or timed out.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            m_running = false;
+            for (Client client : m_clients) {
+                try {
+                    client.m_socket.close();
+                } catch (IOException ignored) {
+                }
+            }
+            m_clients.clear();
+            notifyAll();
+        }
+
+        try {
+            m_serverSocket.close();
+        } catch (IOException e) {
+            RobotLog.ee("WittyDashboard", e, "Failed to close the MJPEG server");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.frcforftc.wittydashboard.struct;
+
+import com.arcrobotics.ftclib.geometry.Pose2d;
+import com.arcrobotics.ftclib.geometry.Rotation2d;
+import com.arcrobotics.ftclib.geometry.Translation2d;
+import com.arcrobotics.ftclib.geometry.Twist2d;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The structs of the FTCLib geometry types, with the same names and layouts as their WPILib counterparts.
+ * Distances are packed in the unit they are stored in and angles in radians.
+ */
+public final class GeometryStructs {
+    public static final Struct<Translation2d> TRANSLATION2D = new Struct<Translation2d>() {
+        @Override
+        public String getTypeName() {
+            return "Translation2d";
+        }
+
+        @Override
+        public int getSize() {
+            return 16;
+        }
+
+        @Override
+        public String getSchema() {
+            return "double x;double y";
+        }
+
+        @Override
+        public void pack(ByteBuffer buffer, Translation2d value) {
+            buffer.putDouble(value.getX());
+            buffer.putDouble(value.getY());
+        }
+
+        @Override
+        public Translation2d unpack(ByteBuffer buffer) {
+            return new Translation2d(buffer.getDouble(), buffer.getDouble());
+        }
+    };
+
+    public static final Struct<Rotation2d> ROTATION2D = new Struct<Rotation2d>() {
+        @Override
+        public String getTypeName() {
+            return "Rotation2d";
+        }
+
+        @Override
+        public int getSize() {
+            return 8;
+        }
+
+        @Override
+        public String getSchema() {
+            return "double value";
+        }
+
+        @Override
+        public void pack(ByteBuffer buffer, Rotation2d value) {
+            buffer.putDouble(value.getRadians());
+        }
+
+        @Override
+        public Rotation2d unpack(ByteBuffer buffer) {
+            return new Rotation2d(buffer.getDouble());
+        }
+    };
+
+    public static final Struct<Pose2d> POSE2D = new Struct<Pose2d>() {
+        @Override
+        public String getTypeName() {
+            return "Pose2d";
+        }
+
+        @Override
+        public int getSize() {
+            return TRANSLATION2D.getSize() + ROTATION2D.getSize();
+        }
+
+        @Override
+        public String getSchema() {
+            return "Translation2d translation;Rotation2d rotation";
+        }
+
+        @Override
+        public Struct<?>[] getNested() {
+            return new Struct<?>[]{TRANSLATION2D, ROTATION2D};
+        }
+
+        @Override
+        public void pack(ByteBuffer buffer, Pose2d value) {
+            TRANSLATION2D.pack(buffer, value.getTranslation());
+            ROTATION2D.pack(buffer, value.getRotation());
+        }
+
+        @Override
+        public Pose2d unpack(ByteBuffer buffer) {
+            return new Pose2d(TRANSLATION2D.unpack(buffer), ROTATION2D.unpack(buffer));
+        }
+    };
+
+    public static final Struct<Twist2d> TWIST2D = new Struct<Twist2d>() {
+        @Override
+        public String getTypeName() {
+            return "Twist2d";
+        }
+
+        @Override
+        public int getSize() {
+            return 24;
+        }
+
+        @Override
+        public String getSchema() {
+            return "double dx;double dy;double dtheta";
+        }
+
+        @Override
+        public void pack(ByteBuffer buffer, Twist2d value) {
+            buffer.putDouble(value.dx);
+            buffer.putDouble(value.dy);
+            buffer.putDouble(value.dtheta);
+        }
+
+        @Override
+        public Twist2d unpack(ByteBuffer buffer) {
+            return new Twist2d(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+        }
+    };
+
+    private GeometryStructs() {
+    }
+}
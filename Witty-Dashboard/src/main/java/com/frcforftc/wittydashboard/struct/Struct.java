@@ -0,0 +1,51 @@
+package com.frcforftc.wittydashboard.struct;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packs values of a type into a fixed size binary layout described by a schema,
+ * following WPILib's {@code struct:} convention so that dashboards such as AdvantageScope can decode them.
+ * Values are packed in little endian byte order.
+ *
+ * @param <T> the type of the values
+ * @see GeometryStructs
+ */
+public interface Struct<T> {
+    /**
+     * @return the name of the type, the topic type is {@code struct:} followed by it
+     */
+    String getTypeName();
+
+    /**
+     * @return the size of a packed value in bytes
+     */
+    int getSize();
+
+    /**
+     * @return the schema of the layout, such as {@code double x;double y}
+     */
+    String getSchema();
+
+    /**
+     * @return the structs used by the schema, whose schemas have to be published too
+     */
+    default Struct<?>[] getNested() {
+        return new Struct<?>[0];
+    }
+
+    /**
+     * Packs a value at the current position of the buffer, advancing it by {@link #getSize()}.
+     *
+     * @param buffer the little endian buffer to pack into
+     * @param value  the value
+     */
+    void pack(ByteBuffer buffer, T value);
+
+    /**
+     * Unpacks a value from the current position of the buffer, advancing it by {@link #getSize()}.
+     *
+     * @param buffer the little endian buffer to unpack from
+     * @return the value
+     */
+    T unpack(ByteBuffer buffer);
+}
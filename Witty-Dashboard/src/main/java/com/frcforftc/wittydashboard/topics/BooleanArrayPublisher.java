@@ -0,0 +1,12 @@
+package com.frcforftc.wittydashboard.topics;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+/**
+ * A handle for publishing a boolean array topic.
+ */
+public final class BooleanArrayPublisher extends ObjectPublisher<boolean[]> {
+    BooleanArrayPublisher(IngestBuffer buffer, String key) {
+        super(buffer, key, NetworkTablesValueType.BooleanArray);
+    }
+}
@@ -0,0 +1,39 @@
+package com.frcforftc.wittydashboard.topics;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+/**
+ * A handle for publishing a boolean topic, resolved once so that setting a value does no lookup and no allocation.
+ */
+public final class BooleanPublisher extends TopicSlot {
+    private volatile boolean m_value;
+
+    BooleanPublisher(IngestBuffer buffer, String key) {
+        super(buffer, key, NetworkTablesValueType.Boolean);
+    }
+
+    /**
+     * Sets the value of the topic, sent by the publisher thread on its next tick.
+     *
+     * @param value the new value
+     */
+    public void set(boolean value) {
+        set(value, System.nanoTime());
+    }
+
+    /**
+     * Sets the value of the topic, measured at the given time.
+     *
+     * @param value          the new value
+     * @param timestampNanos the {@link System#nanoTime()} at which the value was captured
+     */
+    public void set(boolean value, long timestampNanos) {
+        m_value = value;
+        markWritten(timestampNanos);
+    }
+
+    @Override
+    void publish(TopicSink sink) {
+        sink.putBoolean(getKey(), m_value, getTimestampNanos());
+    }
+}
@@ -0,0 +1,29 @@
+package com.frcforftc.wittydashboard.topics;
+
+/**
+ * A handle for reading a boolean topic.
+ */
+public final class BooleanSubscriber extends TopicSubscriber {
+    private final boolean m_defaultValue;
+
+    public BooleanSubscriber(String key, boolean defaultValue) {
+        super(key);
+        this.m_defaultValue = defaultValue;
+    }
+
+    /**
+     * @return the current value of the topic, or the default value if it does not exist or has a different type
+     */
+    public boolean get() {
+        return get(m_defaultValue);
+    }
+
+    /**
+     * @param defaultValue the value returned if the topic does not exist or has a different type
+     * @return the current value of the topic
+     */
+    public boolean get(boolean defaultValue) {
+        Object v = getObject();
+        return v instanceof Boolean ? (Boolean) v : defaultValue;
+    }
+}
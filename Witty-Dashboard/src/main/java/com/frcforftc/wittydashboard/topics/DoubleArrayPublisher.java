@@ -0,0 +1,12 @@
+package com.frcforftc.wittydashboard.topics;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+/**
+ * A handle for publishing a double array topic.
+ */
+public final class DoubleArrayPublisher extends ObjectPublisher<double[]> {
+    DoubleArrayPublisher(IngestBuffer buffer, String key) {
+        super(buffer, key, NetworkTablesValueType.DoubleArray);
+    }
+}
@@ -0,0 +1,29 @@
+package com.frcforftc.wittydashboard.topics;
+
+/**
+ * A handle for reading a double topic.
+ */
+public final class DoubleSubscriber extends TopicSubscriber {
+    private final double m_defaultValue;
+
+    public DoubleSubscriber(String key, double defaultValue) {
+        super(key);
+        this.m_defaultValue = defaultValue;
+    }
+
+    /**
+     * @return the current value of the topic, or the default value if it does not exist or has a different type
+     */
+    public double get() {
+        return get(m_defaultValue);
+    }
+
+    /**
+     * @param defaultValue the value returned if the topic does not exist or has a different type
+     * @return the current value of the topic
+     */
+    public double get(double defaultValue) {
+        Object v = getObject();
+        return v instanceof Number ? ((Number) v).doubleValue() : defaultValue;
+    }
+}
@@ -0,0 +1,12 @@
+package com.frcforftc.wittydashboard.topics;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+/**
+ * A handle for publishing a float array topic.
+ */
+public final class FloatArrayPublisher extends ObjectPublisher<float[]> {
+    FloatArrayPublisher(IngestBuffer buffer, String key) {
+        super(buffer, key, NetworkTablesValueType.FloatArray);
+    }
+}
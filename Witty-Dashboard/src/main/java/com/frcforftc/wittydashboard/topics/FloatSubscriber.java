@@ -0,0 +1,29 @@
+package com.frcforftc.wittydashboard.topics;
+
+/**
+ * A handle for reading a float topic.
+ */
+public final class FloatSubscriber extends TopicSubscriber {
+    private final float m_defaultValue;
+
+    public FloatSubscriber(String key, float defaultValue) {
+        super(key);
+        this.m_defaultValue = defaultValue;
+    }
+
+    /**
+     * @return the current value of the topic, or the default value if it does not exist or has a different type
+     */
+    public float get() {
+        return get(m_defaultValue);
+    }
+
+    /**
+     * @param defaultValue the value returned if the topic does not exist or has a different type
+     * @return the current value of the topic
+     */
+    public float get(float defaultValue) {
+        Object v = getObject();
+        return v instanceof Number ? ((Number) v).floatValue() : defaultValue;
+    }
+}
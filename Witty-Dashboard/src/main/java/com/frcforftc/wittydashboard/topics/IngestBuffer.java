@@ -0,0 +1,263 @@
+package com.frcforftc.wittydashboard.topics;
+
+import com.frcforftc.wittydashboard.struct.Struct;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A write-combining buffer between the threads writing values and the publisher thread.
+ * Every key owns a single {@link TopicSlot}, exposed as a publisher handle, holding its latest value.
+ * Writers replace that value without locking and the publisher thread drains all the written slots once per tick,
+ * so a key that was written several times between two ticks is only sent once.
+ */
+public final class IngestBuffer {
+    /**
+     * The table the schemas of the published structs are published under, once per struct.
+     */
+    public static final String SCHEMA_TABLE = "/.schema/";
+
+    private final ConcurrentMap<String, TopicSlot> m_slotsByKey = new ConcurrentHashMap<>();
+    private volatile TopicSlot[] m_slots = new TopicSlot[0];
+    private final AtomicLong m_coalescedWrites = new AtomicLong();
+
+    public BooleanPublisher booleanPublisher(String key) {
+        return getSlot(key, NetworkTablesValueType.Boolean);
+    }
+
+    public DoublePublisher doublePublisher(String key) {
+        return getSlot(key, NetworkTablesValueType.Double);
+    }
+
+    public FloatPublisher floatPublisher(String key) {
+        return getSlot(key, NetworkTablesValueType.Float);
+    }
+
+    public IntPublisher intPublisher(String key) {
+        return getSlot(key, NetworkTablesValueType.Int);
+    }
+
+    public StringPublisher stringPublisher(String key) {
+        return getSlot(key, NetworkTablesValueType.String);
+    }
+
+    public RawPublisher rawPublisher(String key) {
+        return getSlot(key, NetworkTablesValueType.Raw);
+    }
+
+    public BooleanArrayPublisher booleanArrayPublisher(String key) {
+        return getSlot(key, NetworkTablesValueType.BooleanArray);
+    }
+
+    public DoubleArrayPublisher doubleArrayPublisher(String key) {
+        return getSlot(key, NetworkTablesValueType.DoubleArray);
+    }
+
+    public FloatArrayPublisher floatArrayPublisher(String key) {
+        return getSlot(key, NetworkTablesValueType.FloatArray);
+    }
+
+    public IntArrayPublisher intArrayPublisher(String key) {
+        return getSlot(key, NetworkTablesValueType.IntArray);
+    }
+
+    public StringArrayPublisher stringArrayPublisher(String key) {
+        return getSlot(key, NetworkTablesValueType.StringArray);
+    }
+
+    /**
+     * Gets the publisher of a struct topic, publishing the schema of the struct and of the structs it uses
+     * when the struct is published for the first time.
+     *
+     * @param key    the key of the topic
+     * @param struct the struct packing the values
+     * @return the publisher of the topic
+     */
+    @SuppressWarnings("unchecked")
+    public <T> StructPublisher<T> structPublisher(String key, Struct<T> struct) {
+        TopicSlot slot = m_slotsByKey.get(key);
+        if (slot == null) {
+            slot = addSlot(key, new StructPublisher<>(this, key, struct), struct);
+        }
+
+        if (!(slot instanceof StructPublisher) || ((StructPublisher<?>) slot).getStruct() != struct) {
+            throw new RuntimeException(String.format("Non matching types for topic %s (%s and %s)", key, "struct:" + struct.getTypeName(), slot.getTypeString()));
+        }
+
+        return (StructPublisher<T>) slot;
+    }
+
+    /**
+     * Gets the publisher of a struct array topic, publishing the schema of the struct and of the structs it uses
+     * when the struct is published for the first time.
+     *
+     * @param key    the key of the topic
+     * @param struct the struct packing the values
+     * @return the publisher of the topic
+     */
+    @SuppressWarnings("unchecked")
+    public <T> StructArrayPublisher<T> structArrayPublisher(String key, Struct<T> struct) {
+        TopicSlot slot = m_slotsByKey.get(key);
+        if (slot == null) {
+            slot = addSlot(key, new StructArrayPublisher<>(this, key, struct), struct);
+        }
+
+        if (!(slot instanceof StructArrayPublisher) || ((StructArrayPublisher<?>) slot).getStruct() != struct) {
+            throw new RuntimeException(String.format("Non matching types for topic %s (%s and %s)", key, "struct:" + struct.getTypeName() + "[]", slot.getTypeString()));
+        }
+
+        return (StructArrayPublisher<T>) slot;
+    }
+
+    /**
+     * Sends the schemas of all the published structs again, for a sink that started after they were sent.
+     */
+    public void resendSchemas() {
+        for (TopicSlot slot : m_slots) {
+            if (slot instanceof StructSchemaSlot) ((StructSchemaSlot) slot).resend();
+        }
+    }
+
+    /**
+     * Sends every slot that was written since the last drain to the sink.
+     * Should only be called from the publisher thread.
+     *
+     * @param sink the sink to send the values to
+     */
+    public void drain(TopicSink sink) {
+        TopicSlot[] slots = m_slots;
+        for (TopicSlot slot : slots) {
+            slot.drain(sink);
+        }
+    }
+
+    /**
+     * @return the amount of writes that were replaced by a newer write before being sent
+     */
+    public long getCoalescedWrites() {
+        return m_coalescedWrites.get();
+    }
+
+    /**
+     * Removes all the slots.
+     */
+    public synchronized void clear() {
+        m_slotsByKey.clear();
+        m_slots = new TopicSlot[0];
+    }
+
+    void onCoalesced() {
+        m_coalescedWrites.incrementAndGet();
+    }
+
+    /**
+     * Gets the slot of a key for the put methods of the dashboard, which accept any type for any key.
+     * A slot of another type is replaced instead of throwing, after which its handles are no longer sent.
+     *
+     * @param key  the key of the topic
+     * @param type the type of the value being put
+     * @return the slot of the key, of the given type
+     */
+    @SuppressWarnings("unchecked")
+    public <S extends TopicSlot> S putSlot(String key, NetworkTablesValueType type) {
+        TopicSlot slot = m_slotsByKey.get(key);
+        if (slot != null && slot.getType() == type && slot.getTypeString().equals(type.typeString)) {
+            return (S) slot;
+        }
+
+        return (S) replaceSlot(key, type);
+    }
+
+    private synchronized TopicSlot replaceSlot(String key, NetworkTablesValueType type) {
+        TopicSlot slot = m_slotsByKey.get(key);
+        if (slot != null && slot.getType() == type && slot.getTypeString().equals(type.typeString)) {
+            return slot;
+        }
+
+        if (slot != null) {
+            TopicSlot[] slots = new TopicSlot[m_slots.length - 1];
+            int i = 0;
+            for (TopicSlot other : m_slots) {
+                if (other != slot) slots[i++] = other;
+            }
+            m_slots = slots;
+            m_slotsByKey.remove(key);
+        }
+
+        return createSlot(key, type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S extends TopicSlot> S getSlot(String key, NetworkTablesValueType type) {
+        TopicSlot slot = m_slotsByKey.get(key);
+        if (slot == null) {
+            slot = createSlot(key, type);
+        }
+
+        // Every type is always created as the same slot class, so matching types mean matching classes.
+        // Struct slots are raw topics with a more specific type string, which never matches a plain type
+        if (slot.getType() != type || !slot.getTypeString().equals(type.typeString)) {
+            throw new RuntimeException(String.format("Non matching types for topic %s (%s and %s)", key, type.typeString, slot.getTypeString()));
+        }
+
+        return (S) slot;
+    }
+
+    private synchronized TopicSlot createSlot(String key, NetworkTablesValueType type) {
+        TopicSlot slot = m_slotsByKey.get(key);
+        if (slot != null) return slot;
+
+        slot = switch (type) {
+            case Boolean -> new BooleanPublisher(this, key);
+            case Double -> new DoublePublisher(this, key);
+            case Float -> new FloatPublisher(this, key);
+            case Int -> new IntPublisher(this, key);
+            case String -> new StringPublisher(this, key);
+            case Raw -> new RawPublisher(this, key);
+            case BooleanArray -> new BooleanArrayPublisher(this, key);
+            case DoubleArray -> new DoubleArrayPublisher(this, key);
+            case FloatArray -> new FloatArrayPublisher(this, key);
+            case IntArray -> new IntArrayPublisher(this, key);
+            case StringArray -> new StringArrayPublisher(this, key);
+            default -> throw new IllegalArgumentException("Unsupported type: " + type);
+        };
+
+        append(key, slot);
+        return slot;
+    }
+
+    private synchronized TopicSlot addSlot(String key, TopicSlot newSlot, Struct<?> struct) {
+        TopicSlot slot = m_slotsByKey.get(key);
+        if (slot != null) return slot;
+
+        addSchema(struct);
+        append(key, newSlot);
+        return newSlot;
+    }
+
+    /**
+     * Adds the schema slot of a struct and of the structs it uses, the first time they are seen.
+     */
+    private void addSchema(Struct<?> struct) {
+        for (Struct<?> nested : struct.getNested()) {
+            addSchema(nested);
+        }
+
+        StructSchemaSlot schema = new StructSchemaSlot(this, struct);
+        if (m_slotsByKey.containsKey(schema.getKey())) return;
+
+        append(schema.getKey(), schema);
+        schema.resend();
+    }
+
+    private void append(String key, TopicSlot slot) {
+        TopicSlot[] slots = Arrays.copyOf(m_slots, m_slots.length + 1);
+        slots[slots.length - 1] = slot;
+        m_slots = slots;
+        m_slotsByKey.put(key, slot);
+    }
+}
@@ -0,0 +1,12 @@
+package com.frcforftc.wittydashboard.topics;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+/**
+ * A handle for publishing an integer array topic.
+ */
+public final class IntArrayPublisher extends ObjectPublisher<int[]> {
+    IntArrayPublisher(IngestBuffer buffer, String key) {
+        super(buffer, key, NetworkTablesValueType.IntArray);
+    }
+}
@@ -0,0 +1,29 @@
+package com.frcforftc.wittydashboard.topics;
+
+/**
+ * A handle for reading an integer topic.
+ */
+public final class IntSubscriber extends TopicSubscriber {
+    private final int m_defaultValue;
+
+    public IntSubscriber(String key, int defaultValue) {
+        super(key);
+        this.m_defaultValue = defaultValue;
+    }
+
+    /**
+     * @return the current value of the topic, or the default value if it does not exist or has a different type
+     */
+    public int get() {
+        return get(m_defaultValue);
+    }
+
+    /**
+     * @param defaultValue the value returned if the topic does not exist or has a different type
+     * @return the current value of the topic
+     */
+    public int get(int defaultValue) {
+        Object v = getObject();
+        return v instanceof Number ? ((Number) v).intValue() : defaultValue;
+    }
+}
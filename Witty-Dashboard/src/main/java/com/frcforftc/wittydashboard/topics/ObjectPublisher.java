@@ -0,0 +1,46 @@
+package com.frcforftc.wittydashboard.topics;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+/**
+ * A handle for publishing a string, raw or array topic.
+ * Arrays are not copied, they are sent as they are when the publisher thread drains the topic,
+ * so an array should not be modified after it was set.
+ *
+ * @param <T> the type of the value
+ */
+public abstract class ObjectPublisher<T> extends TopicSlot {
+    private volatile T m_value;
+
+    ObjectPublisher(IngestBuffer buffer, String key, NetworkTablesValueType type) {
+        super(buffer, key, type);
+    }
+
+    /**
+     * Sets the value of the topic, sent by the publisher thread on its next tick.
+     *
+     * @param value the new value
+     */
+    public void set(T value) {
+        set(value, System.nanoTime());
+    }
+
+    /**
+     * Sets the value of the topic, measured at the given time.
+     *
+     * @param value          the new value
+     * @param timestampNanos the {@link System#nanoTime()} at which the value was captured
+     */
+    public void set(T value, long timestampNanos) {
+        m_value = value;
+        markWritten(timestampNanos);
+    }
+
+    @Override
+    void publish(TopicSink sink) {
+        T value = m_value;
+        if (value != null) {
+            sink.putObject(getKey(), getType(), value, getTimestampNanos());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.frcforftc.wittydashboard.topics;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+/**
+ * A handle for publishing a raw topic, whose values only reach the data log since the NetworkTables library
+ * has no put method for raw values.
+ */
+public final class RawPublisher extends ObjectPublisher<byte[]> {
+    RawPublisher(IngestBuffer buffer, String key) {
+        super(buffer, key, NetworkTablesValueType.Raw);
+    }
+}
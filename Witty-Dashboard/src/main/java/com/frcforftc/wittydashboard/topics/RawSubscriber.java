@@ -0,0 +1,29 @@
+package com.frcforftc.wittydashboard.topics;
+
+/**
+ * A handle for reading a raw topic.
+ */
+public final class RawSubscriber extends TopicSubscriber {
+    private final byte[] m_defaultValue;
+
+    public RawSubscriber(String key, byte[] defaultValue) {
+        super(key);
+        this.m_defaultValue = defaultValue;
+    }
+
+    /**
+     * @return the current value of the topic, or the default value if it does not exist or has a different type
+     */
+    public byte[] get() {
+        return get(m_defaultValue);
+    }
+
+    /**
+     * @param defaultValue the value returned if the topic does not exist or has a different type
+     * @return the current value of the topic
+     */
+    public byte[] get(byte[] defaultValue) {
+        Object v = getObject();
+        return v instanceof byte[] ? (byte[]) v : defaultValue;
+    }
+}
@@ -0,0 +1,12 @@
+package com.frcforftc.wittydashboard.topics;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+/**
+ * A handle for publishing a string array topic.
+ */
+public final class StringArrayPublisher extends ObjectPublisher<String[]> {
+    StringArrayPublisher(IngestBuffer buffer, String key) {
+        super(buffer, key, NetworkTablesValueType.StringArray);
+    }
+}
@@ -0,0 +1,29 @@
+package com.frcforftc.wittydashboard.topics;
+
+/**
+ * A handle for reading a string array topic.
+ */
+public final class StringArraySubscriber extends TopicSubscriber {
+    private final String[] m_defaultValue;
+
+    public StringArraySubscriber(String key, String[] defaultValue) {
+        super(key);
+        this.m_defaultValue = defaultValue;
+    }
+
+    /**
+     * @return the current value of the topic, or the default value if it does not exist or has a different type
+     */
+    public String[] get() {
+        return get(m_defaultValue);
+    }
+
+    /**
+     * @param defaultValue the value returned if the topic does not exist or has a different type
+     * @return the current value of the topic
+     */
+    public String[] get(String[] defaultValue) {
+        Object v = getObject();
+        return v instanceof String[] ? (String[]) v : defaultValue;
+    }
+}
@@ -0,0 +1,76 @@
+package com.frcforftc.wittydashboard.topics;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+
+/**
+ * A handle for publishing a string topic.
+ * The value can also be set as a format and its arguments, which are only formatted by the publisher thread,
+ * and only when they differ from the ones that were formatted last.
+ */
+public final class StringPublisher extends ObjectPublisher<String> {
+    private volatile Formatted m_formatted;
+    private Formatted m_lastFormatted;
+
+    /**
+     * A format and its arguments, replaced together so the publisher thread never reads the arguments of another format.
+     */
+    private static final class Formatted {
+        private final String m_format;
+        private final Object[] m_args;
+
+        private Formatted(String format, Object[] args) {
+            this.m_format = format;
+            this.m_args = args;
+        }
+
+        private boolean matches(Formatted other) {
+            return other != null && m_format.equals(other.m_format) && Arrays.equals(m_args, other.m_args);
+        }
+    }
+
+    StringPublisher(IngestBuffer buffer, String key) {
+        super(buffer, key, NetworkTablesValueType.String);
+    }
+
+    @Override
+    public void set(String value, long timestampNanos) {
+        m_formatted = null;
+        super.set(value, timestampNanos);
+    }
+
+    /**
+     * Sets the value of the topic to a formatted string, formatted by the publisher thread on its next tick.
+     * The arguments are compared with {@link Object#equals(Object)}, so they should not be modified afterwards.
+     *
+     * @param format the format, as in {@link String#format(String, Object...)}
+     * @param args   the arguments of the format
+     */
+    public void setFormat(String format, Object... args) {
+        m_formatted = new Formatted(format, args);
+        markWritten(System.nanoTime());
+    }
+
+    @Override
+    void publish(TopicSink sink) {
+        Formatted formatted = m_formatted;
+        if (formatted == null) {
+            m_lastFormatted = null;
+            super.publish(sink);
+            return;
+        }
+
+        if (formatted.matches(m_lastFormatted)) return;
+
+        m_lastFormatted = formatted;
+        String value;
+        try {
+            value = String.format(formatted.m_format, formatted.m_args);
+        } catch (IllegalFormatException e) {
+            value = formatted.m_format;
+        }
+        sink.putObject(getKey(), getType(), value, getTimestampNanos());
+    }
+}
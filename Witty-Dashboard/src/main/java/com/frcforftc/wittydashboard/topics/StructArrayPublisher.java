@@ -0,0 +1,77 @@
+package com.frcforftc.wittydashboard.topics;
+
+import com.frcforftc.wittydashboard.struct.Struct;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A handle for publishing an array of values packed with a {@link Struct}, as a raw topic of type {@code struct:<name>[]}.
+ * The values are packed back to back by the publisher thread into a buffer owned by the handle, which is only
+ * reallocated when the length of the array changes. The array is not copied, so it should not be modified after it was set.
+ * Like every raw topic, the values only reach the data log, the NetworkTables library has no put method for them.
+ *
+ * @param <T> the type of the values
+ */
+public final class StructArrayPublisher<T> extends TopicSlot {
+    private final Struct<T> m_struct;
+    private final String m_typeString;
+    private byte[] m_bytes = new byte[0];
+    private ByteBuffer m_buffer = ByteBuffer.wrap(m_bytes).order(ByteOrder.LITTLE_ENDIAN);
+    private volatile T[] m_values;
+
+    StructArrayPublisher(IngestBuffer buffer, String key, Struct<T> struct) {
+        super(buffer, key, NetworkTablesValueType.Raw);
+        this.m_struct = struct;
+        this.m_typeString = "struct:" + struct.getTypeName() + "[]";
+    }
+
+    public Struct<T> getStruct() {
+        return m_struct;
+    }
+
+    @Override
+    public String getTypeString() {
+        return m_typeString;
+    }
+
+    /**
+     * Sets the values of the topic, sent by the publisher thread on its next tick.
+     *
+     * @param values the new values
+     */
+    public void set(T[] values) {
+        set(values, System.nanoTime());
+    }
+
+    /**
+     * Sets the values of the topic, measured at the given time.
+     *
+     * @param values         the new values
+     * @param timestampNanos the {@link System#nanoTime()} at which the values were captured
+     */
+    public void set(T[] values, long timestampNanos) {
+        m_values = values;
+        markWritten(timestampNanos);
+    }
+
+    @Override
+    void publish(TopicSink sink) {
+        T[] values = m_values;
+        if (values == null) return;
+
+        int size = values.length * m_struct.getSize();
+        if (m_bytes.length != size) {
+            m_bytes = new byte[size];
+            m_buffer = ByteBuffer.wrap(m_bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        m_buffer.clear();
+        for (T value : values) {
+            m_struct.pack(m_buffer, value);
+        }
+        sink.putRaw(getKey(), m_typeString, m_bytes, getTimestampNanos());
+    }
+}
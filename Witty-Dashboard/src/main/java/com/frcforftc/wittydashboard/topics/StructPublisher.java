@@ -0,0 +1,71 @@
+package com.frcforftc.wittydashboard.topics;
+
+import com.frcforftc.wittydashboard.struct.Struct;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A handle for publishing a value packed with a {@link Struct}, as a raw topic of type {@code struct:<name>}.
+ * The value is packed by the publisher thread into a buffer owned by the handle, so setting it allocates nothing,
+ * but it should not be modified after it was set.
+ * Like every raw topic, the value only reaches the data log, the NetworkTables library has no put method for it.
+ *
+ * @param <T> the type of the value
+ */
+public final class StructPublisher<T> extends TopicSlot {
+    private final Struct<T> m_struct;
+    private final String m_typeString;
+    private final byte[] m_bytes;
+    private final ByteBuffer m_buffer;
+    private volatile T m_value;
+
+    StructPublisher(IngestBuffer buffer, String key, Struct<T> struct) {
+        super(buffer, key, NetworkTablesValueType.Raw);
+        this.m_struct = struct;
+        this.m_typeString = "struct:" + struct.getTypeName();
+        this.m_bytes = new byte[struct.getSize()];
+        this.m_buffer = ByteBuffer.wrap(m_bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public Struct<T> getStruct() {
+        return m_struct;
+    }
+
+    @Override
+    public String getTypeString() {
+        return m_typeString;
+    }
+
+    /**
+     * Sets the value of the topic, sent by the publisher thread on its next tick.
+     *
+     * @param value the new value
+     */
+    public void set(T value) {
+        set(value, System.nanoTime());
+    }
+
+    /**
+     * Sets the value of the topic, measured at the given time.
+     *
+     * @param value          the new value
+     * @param timestampNanos the {@link System#nanoTime()} at which the value was captured
+     */
+    public void set(T value, long timestampNanos) {
+        m_value = value;
+        markWritten(timestampNanos);
+    }
+
+    @Override
+    void publish(TopicSink sink) {
+        T value = m_value;
+        if (value == null) return;
+
+        m_buffer.clear();
+        m_struct.pack(m_buffer, value);
+        sink.putRaw(getKey(), m_typeString, m_bytes, getTimestampNanos());
+    }
+}
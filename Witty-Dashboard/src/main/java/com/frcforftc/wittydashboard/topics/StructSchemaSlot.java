@@ -0,0 +1,36 @@
+package com.frcforftc.wittydashboard.topics;
+
+import com.frcforftc.wittydashboard.struct.Struct;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Holds the schema of a {@link Struct}, published under {@link IngestBuffer#SCHEMA_TABLE} as a {@code structschema} topic.
+ */
+final class StructSchemaSlot extends TopicSlot {
+    private final byte[] m_schema;
+
+    StructSchemaSlot(IngestBuffer buffer, Struct<?> struct) {
+        super(buffer, IngestBuffer.SCHEMA_TABLE + "struct:" + struct.getTypeName(), NetworkTablesValueType.Raw);
+        this.m_schema = struct.getSchema().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getTypeString() {
+        return "structschema";
+    }
+
+    /**
+     * Marks the schema to be sent again on the next tick.
+     */
+    void resend() {
+        markWritten(System.nanoTime());
+    }
+
+    @Override
+    void publish(TopicSink sink) {
+        sink.putRaw(getKey(), "structschema", m_schema, getTimestampNanos());
+    }
+}
@@ -0,0 +1,41 @@
+package com.frcforftc.wittydashboard.topics;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+/**
+ * The destination of the values drained from an {@link IngestBuffer} and of the sampled sendable properties.
+ * Every value carries the {@link System#nanoTime()} at which it was captured, not the time at which it is sent.
+ */
+public interface TopicSink {
+    void putBoolean(String key, boolean value, long timestampNanos);
+
+    void putDouble(String key, double value, long timestampNanos);
+
+    void putFloat(String key, float value, long timestampNanos);
+
+    void putInt(String key, int value, long timestampNanos);
+
+    /**
+     * Puts a value that is not a primitive, such as a string, raw bytes or an array.
+     *
+     * @param key            the key of the topic
+     * @param type           the type of the value
+     * @param value          the value
+     * @param timestampNanos the {@link System#nanoTime()} at which the value was captured
+     */
+    void putObject(String key, NetworkTablesValueType type, Object value, long timestampNanos);
+
+    /**
+     * Puts raw bytes whose content is described by a type string, such as {@code struct:Pose2d}.
+     * The bytes may be reused once the call returned, so sinks must not keep them.
+     * Sinks that cannot carry the type string put them as plain raw bytes.
+     *
+     * @param key            the key of the topic
+     * @param typeString     the type string of the topic
+     * @param value          the bytes
+     * @param timestampNanos the {@link System#nanoTime()} at which the value was captured
+     */
+    default void putRaw(String key, String typeString, byte[] value, long timestampNanos) {
+        putObject(key, NetworkTablesValueType.Raw, value, timestampNanos);
+    }
+}
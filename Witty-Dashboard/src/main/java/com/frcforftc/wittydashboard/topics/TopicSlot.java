@@ -0,0 +1,74 @@
+package com.frcforftc.wittydashboard.topics;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the latest value written to a single topic until it is drained by the publisher thread.
+ * Writing a value never blocks, a value that is overwritten before it was drained is counted as coalesced.
+ * <p>
+ * The capture time of the value only reaches the data log. The NetworkTables library has no timestamped put,
+ * so NetworkTables stamps the value with the time the publisher thread drained it, up to a tick later.
+ */
+public abstract class TopicSlot {
+    private final String m_key;
+    private final NetworkTablesValueType m_type;
+    private final IngestBuffer m_buffer;
+    private final AtomicBoolean m_dirty = new AtomicBoolean(false);
+    private volatile long m_timestampNanos;
+
+    TopicSlot(IngestBuffer buffer, String key, NetworkTablesValueType type) {
+        this.m_buffer = buffer;
+        this.m_key = key;
+        this.m_type = type;
+    }
+
+    public String getKey() {
+        return m_key;
+    }
+
+    public NetworkTablesValueType getType() {
+        return m_type;
+    }
+
+    /**
+     * @return the type string of the topic, which is more specific than its type for structs
+     */
+    public String getTypeString() {
+        return m_type.typeString;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} at which the latest value was captured
+     */
+    public long getTimestampNanos() {
+        return m_timestampNanos;
+    }
+
+    /**
+     * Marks the slot as holding a value that was not drained yet.
+     * Must be called after the value itself was written.
+     *
+     * @param timestampNanos the {@link System#nanoTime()} at which the value was captured
+     */
+    final void markWritten(long timestampNanos) {
+        m_timestampNanos = timestampNanos;
+        if (m_dirty.getAndSet(true)) {
+            m_buffer.onCoalesced();
+        }
+    }
+
+    /**
+     * Sends the value of the slot to the sink if it was written since the last drain.
+     *
+     * @param sink the sink to send the value to
+     */
+    final void drain(TopicSink sink) {
+        if (m_dirty.getAndSet(false)) {
+            publish(sink);
+        }
+    }
+
+    abstract void publish(TopicSink sink);
+}
@@ -0,0 +1,37 @@
+package com.frcforftc.wittydashboard.topics;
+
+import org.frcforftc.networktables.NetworkTablesEntry;
+import org.frcforftc.networktables.NetworkTablesInstance;
+import org.frcforftc.networktables.NetworkTablesValue;
+
+/**
+ * A handle for reading a topic. The entry of the topic is looked up until it exists and is kept afterwards,
+ * so reading the value does no lookup by key.
+ */
+public abstract class TopicSubscriber {
+    private final String m_key;
+    private volatile NetworkTablesEntry m_entry;
+
+    TopicSubscriber(String key) {
+        this.m_key = key;
+    }
+
+    public String getKey() {
+        return m_key;
+    }
+
+    /**
+     * @return the current value of the topic, or null if the topic does not exist yet
+     */
+    Object getObject() {
+        NetworkTablesEntry entry = m_entry;
+        if (entry == null) {
+            entry = NetworkTablesInstance.getDefaultInstance().get(m_key);
+            if (entry == null) return null;
+            m_entry = entry;
+        }
+
+        NetworkTablesValue value = entry.getValue();
+        return value == null ? null : value.get();
+    }
+}
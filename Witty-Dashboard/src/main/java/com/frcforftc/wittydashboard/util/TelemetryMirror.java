@@ -0,0 +1,310 @@
+package com.frcforftc.wittydashboard.util;
+
+import com.frcforftc.wittydashboard.WittyDashboard;
+import com.frcforftc.wittydashboard.topics.BooleanPublisher;
+import com.frcforftc.wittydashboard.topics.DoublePublisher;
+import com.frcforftc.wittydashboard.topics.StringPublisher;
+
+import org.firstinspires.ftc.robotcore.external.Func;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.frcforftc.networktables.NetworkTablesValueType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link Telemetry} that forwards everything to the Driver Station telemetry, and also publishes every
+ * data item as a topic under {@link #TABLE}, so the same {@code addData} calls feed both.
+ * <p>
+ * Each caption keeps a cached publisher handle. Numbers and booleans are published as such, without formatting.
+ * Formats and other values are handed to the publisher thread as they are, and only formatted there when they
+ * changed. Values produced by a {@link Func} are read once per Driver Station transmission, when {@link #update()}
+ * actually sends. The type of a caption's topic follows its values: a value of another type than the previous one
+ * replaces the topic, as does the first value of a caption whose topic was left with another type by an earlier
+ * OpMode. Items and lines keep forwarding, but values set through a returned {@link Telemetry.Item} are not mirrored.
+ */
+public class TelemetryMirror implements Telemetry {
+    /**
+     * The table the captions are published under.
+     */
+    public static final String TABLE = "Telemetry/";
+
+    private final Telemetry m_telemetry;
+    private final Map<String, MirroredItem> m_items = new HashMap<>();
+    private final ArrayList<MirroredItem> m_producedItems = new ArrayList<>();
+
+    /**
+     * The published topic of a caption, typed by its latest value.
+     */
+    private static final class MirroredItem {
+        private final String m_key;
+        private DoublePublisher m_double;
+        private BooleanPublisher m_boolean;
+        private StringPublisher m_string;
+        private Func<?> m_producer;
+        private String m_producerFormat;
+
+        private MirroredItem(String key) {
+            this.m_key = key;
+        }
+
+        private void setValue(Object value) {
+            if (value instanceof Number) {
+                if (m_double == null) {
+                    m_double = WittyDashboard.publishReplacing(m_key, NetworkTablesValueType.Double);
+                    m_boolean = null;
+                    m_string = null;
+                }
+                m_double.set(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                if (m_boolean == null) {
+                    m_boolean = WittyDashboard.publishReplacing(m_key, NetworkTablesValueType.Boolean);
+                    m_double = null;
+                    m_string = null;
+                }
+                m_boolean.set((Boolean) value);
+            } else if (value instanceof String) {
+                getString().set((String) value);
+            } else {
+                getString().setFormat("%s", value);
+            }
+        }
+
+        private void setFormat(String format, Object[] args) {
+            getString().setFormat(format, args);
+        }
+
+        private StringPublisher getString() {
+            if (m_string == null) {
+                m_string = WittyDashboard.publishReplacing(m_key, NetworkTablesValueType.String);
+                m_double = null;
+                m_boolean = null;
+            }
+            return m_string;
+        }
+
+        private void produce() {
+            Object value = m_producer.value();
+            if (m_producerFormat == null) {
+                setValue(value);
+            } else {
+                setFormat(m_producerFormat, new Object[]{value});
+            }
+        }
+    }
+
+    public TelemetryMirror(Telemetry telemetry) {
+        this.m_telemetry = telemetry;
+    }
+
+    /**
+     * @return the Driver Station telemetry the calls are forwarded to
+     */
+    public Telemetry getTelemetry() {
+        return m_telemetry;
+    }
+
+    private MirroredItem getItem(String caption) {
+        MirroredItem item = m_items.get(caption);
+        if (item == null) {
+            item = new MirroredItem(TABLE + caption);
+            m_items.put(caption, item);
+        }
+        return item;
+    }
+
+    private void addProducer(String caption, String format, Func<?> valueProducer) {
+        MirroredItem item = getItem(caption);
+        if (item.m_producer == null) m_producedItems.add(item);
+        item.m_producer = valueProducer;
+        item.m_producerFormat = format;
+    }
+
+    @Override
+    public Item addData(String caption, String format, Object... args) {
+        getItem(caption).setFormat(format, args);
+        return m_telemetry.addData(caption, format, args);
+    }
+
+    @Override
+    public Item addData(String caption, Object value) {
+        getItem(caption).setValue(value);
+        return m_telemetry.addData(caption, value);
+    }
+
+    @Override
+    public <T> Item addData(String caption, Func<T> valueProducer) {
+        addProducer(caption, null, valueProducer);
+        return m_telemetry.addData(caption, valueProducer);
+    }
+
+    @Override
+    public <T> Item addData(String caption, String format, Func<T> valueProducer) {
+        addProducer(caption, format, valueProducer);
+        return m_telemetry.addData(caption, format, valueProducer);
+    }
+
+    @Override
+    public boolean removeItem(Item item) {
+        return m_telemetry.removeItem(item);
+    }
+
+    @Override
+    public void clear() {
+        clearProducers();
+        m_telemetry.clear();
+    }
+
+    @Override
+    public void clearAll() {
+        clearProducers();
+        m_telemetry.clearAll();
+    }
+
+    private void clearProducers() {
+        for (int i = 0; i < m_producedItems.size(); i++) {
+            m_producedItems.get(i).m_producer = null;
+        }
+        m_producedItems.clear();
+    }
+
+    @Override
+    public Object addAction(Runnable action) {
+        return m_telemetry.addAction(action);
+    }
+
+    @Override
+    public boolean removeAction(Object token) {
+        return m_telemetry.removeAction(token);
+    }
+
+    @Override
+    public void speak(String text) {
+        m_telemetry.speak(text);
+    }
+
+    @Override
+    public void speak(String text, String languageCode, String countryCode) {
+        m_telemetry.speak(text, languageCode, countryCode);
+    }
+
+    /**
+     * Forwards the update to the Driver Station telemetry, which throttles its transmissions.
+     * The produced values are only read when it actually transmitted, after which they are cleared
+     * along with the Driver Station items when auto clear is on.
+     *
+     * @return whether the Driver Station telemetry transmitted
+     */
+    @Override
+    public boolean update() {
+        boolean transmitted = m_telemetry.update();
+        if (transmitted) {
+            for (int i = 0; i < m_producedItems.size(); i++) {
+                m_producedItems.get(i).produce();
+            }
+            if (m_telemetry.isAutoClear()) clearProducers();
+        }
+        return transmitted;
+    }
+
+    @Override
+    public Line addLine() {
+        return new MirroredLine(m_telemetry.addLine());
+    }
+
+    @Override
+    public Line addLine(String lineCaption) {
+        return new MirroredLine(m_telemetry.addLine(lineCaption));
+    }
+
+    @Override
+    public boolean removeLine(Line line) {
+        return m_telemetry.removeLine(line instanceof MirroredLine ? ((MirroredLine) line).m_line : line);
+    }
+
+    @Override
+    public boolean isAutoClear() {
+        return m_telemetry.isAutoClear();
+    }
+
+    @Override
+    public void setAutoClear(boolean autoClear) {
+        m_telemetry.setAutoClear(autoClear);
+    }
+
+    @Override
+    public int getMsTransmissionInterval() {
+        return m_telemetry.getMsTransmissionInterval();
+    }
+
+    @Override
+    public void setMsTransmissionInterval(int msTransmissionInterval) {
+        m_telemetry.setMsTransmissionInterval(msTransmissionInterval);
+    }
+
+    @Override
+    public String getItemSeparator() {
+        return m_telemetry.getItemSeparator();
+    }
+
+    @Override
+    public void setItemSeparator(String itemSeparator) {
+        m_telemetry.setItemSeparator(itemSeparator);
+    }
+
+    @Override
+    public String getCaptionValueSeparator() {
+        return m_telemetry.getCaptionValueSeparator();
+    }
+
+    @Override
+    public void setCaptionValueSeparator(String captionValueSeparator) {
+        m_telemetry.setCaptionValueSeparator(captionValueSeparator);
+    }
+
+    @Override
+    public void setDisplayFormat(DisplayFormat displayFormat) {
+        m_telemetry.setDisplayFormat(displayFormat);
+    }
+
+    @Override
+    public Log log() {
+        return m_telemetry.log();
+    }
+
+    /**
+     * A line whose data items are mirrored like the ones added to the telemetry directly.
+     */
+    private final class MirroredLine implements Line {
+        private final Line m_line;
+
+        private MirroredLine(Line line) {
+            this.m_line = line;
+        }
+
+        @Override
+        public Item addData(String caption, String format, Object... args) {
+            getItem(caption).setFormat(format, args);
+            return m_line.addData(caption, format, args);
+        }
+
+        @Override
+        public Item addData(String caption, Object value) {
+            getItem(caption).setValue(value);
+            return m_line.addData(caption, value);
+        }
+
+        @Override
+        public <T> Item addData(String caption, Func<T> valueProducer) {
+            addProducer(caption, null, valueProducer);
+            return m_line.addData(caption, valueProducer);
+        }
+
+        @Override
+        public <T> Item addData(String caption, String format, Func<T> valueProducer) {
+            addProducer(caption, format, valueProducer);
+            return m_line.addData(caption, format, valueProducer);
+        }
+    }
+}
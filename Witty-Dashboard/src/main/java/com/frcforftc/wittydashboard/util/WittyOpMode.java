@@ -28,7 +28,7 @@ public abstract class WittyOpMode extends LinearOpMode {
     private ElapsedTime m_elapsedTime;
 
     /**
-     * The telemetry object used for communication with the driver station.
+     * The telemetry object used for communication with the driver station, which {@link #telemetry} mirrors.
      */
     private Telemetry m_robotTelemetry;
 
@@ -44,9 +44,11 @@ public abstract class WittyOpMode extends LinearOpMode {
 
         waitForStart();
 
+        WittyDashboard.processIncoming();
         startRobot();
 
         while (opModeIsActive() && !isStopRequested()) {
+            WittyDashboard.processIncoming();
             updateLoop();
         }
 
@@ -58,6 +60,8 @@ public abstract class WittyOpMode extends LinearOpMode {
      */
     private void initialize() {
         WittyDashboard.start(this);
+        // Values changed from the dashboard are applied at the start of each loop iteration
+        WittyDashboard.setDeferIncoming(true);
 
         m_elapsedTime = new ElapsedTime();
         m_elapsedTime.reset();
@@ -102,6 +106,8 @@ public abstract class WittyOpMode extends LinearOpMode {
             this.type = TYPE.TeleOp;
         }
         m_robotTelemetry = telemetry;
+        // Every telemetry item is also published to the dashboard
+        telemetry = new TelemetryMirror(m_robotTelemetry);
     }
 
     /**
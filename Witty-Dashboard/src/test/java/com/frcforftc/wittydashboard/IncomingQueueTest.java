@@ -0,0 +1,92 @@
+package com.frcforftc.wittydashboard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that the queue coalesces values per topic and loses no topic while several producers write concurrently.
+ */
+public class IncomingQueueTest {
+    private static final int PRODUCERS = 4;
+    private static final int TOPICS_PER_PRODUCER = 8;
+    private static final int WRITES_PER_TOPIC = 20000;
+
+    @Test
+    public void coalescesValuesOfATopic() {
+        IncomingQueue queue = new IncomingQueue();
+        IncomingQueue.Node first = new IncomingQueue.Node(0);
+        IncomingQueue.Node second = new IncomingQueue.Node(1);
+
+        assertTrue(queue.offer(first, 1));
+        assertTrue(queue.offer(second, 2));
+        assertFalse(queue.offer(first, 3));
+
+        IncomingQueue.Node node = queue.poll();
+        assertEquals(first, node);
+        assertEquals(3, node.m_pending.getAndSet(null));
+        node = queue.poll();
+        assertEquals(second, node);
+        assertEquals(2, node.m_pending.getAndSet(null));
+        assertNull(queue.poll());
+
+        // A topic can be queued again once its value was taken
+        assertTrue(queue.offer(first, 4));
+        assertEquals(first, queue.poll());
+    }
+
+    @Test
+    public void concurrentProducersLoseNoTopic() throws InterruptedException {
+        IncomingQueue queue = new IncomingQueue();
+        IncomingQueue.Node[] nodes = new IncomingQueue.Node[PRODUCERS * TOPICS_PER_PRODUCER];
+        for (int i = 0; i < nodes.length; i++) nodes[i] = new IncomingQueue.Node(i);
+
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(PRODUCERS);
+        for (int p = 0; p < PRODUCERS; p++) {
+            int first = p * TOPICS_PER_PRODUCER;
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int write = 1; write <= WRITES_PER_TOPIC; write++) {
+                    for (int topic = first; topic < first + TOPICS_PER_PRODUCER; topic++) {
+                        queue.offer(nodes[topic], write);
+                    }
+                }
+                done.countDown();
+            });
+            producer.setDaemon(true);
+            producer.start();
+        }
+
+        int[] latest = new int[nodes.length];
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            boolean finished = done.getCount() == 0;
+            IncomingQueue.Node node;
+            while ((node = queue.poll()) != null) {
+                Object value = node.m_pending.getAndSet(null);
+                if (value == null) continue;
+                int write = (Integer) value;
+                assertTrue("Values of a topic went backwards", write > latest[node.m_id]);
+                latest[node.m_id] = write;
+            }
+            // Only stop once the queue was drained after every producer finished
+            if (finished) break;
+        }
+
+        for (int topic = 0; topic < nodes.length; topic++) {
+            assertEquals(WRITES_PER_TOPIC, latest[topic]);
+        }
+    }
+}
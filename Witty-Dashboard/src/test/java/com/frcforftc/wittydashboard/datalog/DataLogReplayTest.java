@@ -0,0 +1,56 @@
+package com.frcforftc.wittydashboard.datalog;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes a value of every type into a log, replays it, and checks that every value comes back out.
+ */
+public class DataLogReplayTest {
+    @Test
+    public void everyTypeSurvivesTheRoundTrip() throws IOException, InterruptedException {
+        File file = File.createTempFile("witty", ".wpilog");
+        file.deleteOnExit();
+
+        try (DataLog log = new DataLog(file, "test")) {
+            long now = System.nanoTime();
+            log.putBoolean("Boolean", true, now);
+            log.putDouble("Double", 0.1, now);
+            log.putFloat("Float", 2.5f, now);
+            log.putInt("Int", Integer.MIN_VALUE, now);
+            log.putObject("String", NetworkTablesValueType.String, "h\u00e9llo \ud83d\ude00", now);
+            log.putObject("BooleanArray", NetworkTablesValueType.BooleanArray, new boolean[]{true, false, true}, now);
+            log.putObject("DoubleArray", NetworkTablesValueType.DoubleArray, new double[]{1.5, -2, 1e300}, now);
+            log.putObject("FloatArray", NetworkTablesValueType.FloatArray, new float[]{0.5f, -3}, now);
+            log.putObject("IntArray", NetworkTablesValueType.IntArray, new int[]{Integer.MAX_VALUE, -1}, now);
+            log.putObject("StringArray", NetworkTablesValueType.StringArray, new String[]{"a", "", "\u00fc"}, now);
+            log.putDouble("Changing", 1, now);
+            log.putObject("Changing", NetworkTablesValueType.String, "now a string", now + 1000);
+        }
+
+        RecordingInstance instance = new RecordingInstance();
+        try (LogReplay replay = new LogReplay(file)) {
+            assertEquals(12, replay.getRecordCount());
+            instance.replay(replay);
+            assertEquals(0, replay.getFailedRecords());
+        }
+
+        assertEquals(true, instance.getValue("Boolean"));
+        assertEquals(0.1, instance.getValue("Double"));
+        assertEquals(2.5, instance.getValue("Float"));
+        assertEquals((double) Integer.MIN_VALUE, instance.getValue("Int"));
+        assertEquals("h\u00e9llo \ud83d\ude00", instance.getValue("String"));
+        assertArrayEquals(new boolean[]{true, false, true}, (boolean[]) instance.getValue("BooleanArray"));
+        assertArrayEquals(new double[]{1.5, -2, 1e300}, (double[]) instance.getValue("DoubleArray"), 0);
+        assertArrayEquals(new double[]{0.5, -3}, (double[]) instance.getValue("FloatArray"), 0);
+        assertArrayEquals(new double[]{Integer.MAX_VALUE, -1}, (double[]) instance.getValue("IntArray"), 0);
+        assertArrayEquals(new String[]{"a", "", "\u00fc"}, (String[]) instance.getValue("StringArray"));
+        assertEquals("now a string", instance.getValue("Changing"));
+    }
+}
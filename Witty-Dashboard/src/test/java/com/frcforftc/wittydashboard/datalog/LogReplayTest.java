@@ -0,0 +1,51 @@
+package com.frcforftc.wittydashboard.datalog;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the record index of a replayed log and that playback starts at the sought record.
+ */
+public class LogReplayTest {
+    private static final int RECORDS = 10;
+    private static final long PERIOD_MICROS = 1000;
+
+    private static File writeLog() throws IOException {
+        File file = File.createTempFile("witty", ".wpilog");
+        file.deleteOnExit();
+
+        try (DataLog log = new DataLog(file, "test")) {
+            long start = System.nanoTime();
+            for (int i = 0; i < RECORDS; i++) {
+                log.putDouble("Value", i, start + TimeUnit.MICROSECONDS.toNanos(i * PERIOD_MICROS));
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public void indexesEveryRecord() throws IOException {
+        try (LogReplay replay = new LogReplay(writeLog())) {
+            assertEquals(RECORDS, replay.getRecordCount());
+            assertEquals((RECORDS - 1) * PERIOD_MICROS, replay.getEndMicros() - replay.getStartMicros());
+        }
+    }
+
+    @Test
+    public void seekStartsAtTheFirstRecordAtOrAfterTheTime() throws IOException, InterruptedException {
+        RecordingInstance instance = new RecordingInstance();
+        try (LogReplay replay = new LogReplay(writeLog())) {
+            // Halfway between the 5th and 6th record
+            replay.seek(replay.getStartMicros() + 4 * PERIOD_MICROS + PERIOD_MICROS / 2);
+            instance.replay(replay);
+        }
+
+        assertEquals(List.of(5.0, 6.0, 7.0, 8.0, 9.0), instance.getValues("Value"));
+    }
+}
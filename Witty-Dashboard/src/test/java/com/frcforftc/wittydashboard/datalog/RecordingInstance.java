@@ -0,0 +1,90 @@
+package com.frcforftc.wittydashboard.datalog;
+
+import static org.junit.Assert.assertTrue;
+
+import org.frcforftc.networktables.NetworkTablesEntry;
+import org.frcforftc.networktables.NetworkTablesInstance;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An instance that records every value put into it instead of publishing it.
+ * Numbers and number arrays are recorded as doubles, like the dashboard receives them.
+ */
+final class RecordingInstance extends NetworkTablesInstance {
+    private final Map<String, List<Object>> m_values = new HashMap<>();
+
+    /**
+     * Replays the whole log as fast as possible into this instance and waits until the replay finished.
+     */
+    void replay(LogReplay replay) throws InterruptedException {
+        replay.setSpeed(LogReplay.AS_FAST_AS_POSSIBLE);
+        replay.start(this);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (replay.isRunning() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue("The replay did not finish", !replay.isRunning());
+    }
+
+    /**
+     * @return every value put under the key, in order
+     */
+    synchronized List<Object> getValues(String key) {
+        return new ArrayList<>(m_values.getOrDefault(key, List.of()));
+    }
+
+    /**
+     * @return the last value put under the key, or null if none was
+     */
+    synchronized Object getValue(String key) {
+        List<Object> values = m_values.get(key);
+        return values == null ? null : values.get(values.size() - 1);
+    }
+
+    private synchronized NetworkTablesEntry record(String key, Object value) {
+        m_values.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        return null;
+    }
+
+    @Override
+    public NetworkTablesEntry putNumber(String key, Number value) {
+        return record(key, value.doubleValue());
+    }
+
+    @Override
+    public NetworkTablesEntry putString(String key, String value) {
+        return record(key, value);
+    }
+
+    @Override
+    public NetworkTablesEntry putBoolean(String key, boolean value) {
+        return record(key, value);
+    }
+
+    @Override
+    public NetworkTablesEntry putBooleanArray(String key, boolean[] value) {
+        return record(key, value);
+    }
+
+    @Override
+    public NetworkTablesEntry putNumberArray(String key, double[] value) {
+        return record(key, value);
+    }
+
+    @Override
+    public NetworkTablesEntry putNumberArray(String key, float[] value) {
+        double[] array = new double[value.length];
+        for (int i = 0; i < value.length; i++) array[i] = value[i];
+        return record(key, array);
+    }
+
+    @Override
+    public NetworkTablesEntry putStringArray(String key, String[] value) {
+        return record(key, value);
+    }
+}
@@ -0,0 +1,49 @@
+package com.frcforftc.wittydashboard.sendables;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Checks the packing of drained samples and the counting of samples dropped when the writer laps the reader.
+ */
+public class SampledSeriesTest {
+    @Test
+    public void drainsSamplesSinceTheLastDrain() {
+        SampledSeries series = new SampledSeries(4);
+        assertNull(series.drainSamples());
+
+        long start = System.nanoTime();
+        series.record(start, 1);
+        series.record(start + 500_000_000L, 2);
+        double[] packed = series.drainSamples();
+
+        assertEquals(4, packed.length);
+        assertEquals(0.5, packed[2] - packed[0], 1e-9);
+        assertEquals(1, packed[1], 0);
+        assertEquals(2, packed[3], 0);
+        assertNull(series.drainSamples());
+        assertEquals(0, series.getDroppedSamples());
+    }
+
+    @Test
+    public void lappedSamplesAreDroppedAndCounted() {
+        SampledSeries series = new SampledSeries(5); // Rounded up to 8
+        long start = System.nanoTime();
+        for (int i = 0; i < 13; i++) {
+            series.record(start + i, i);
+        }
+
+        double[] packed = series.drainSamples();
+        double[] values = new double[packed.length / 2];
+        for (int i = 0; i < values.length; i++) values[i] = packed[2 * i + 1];
+
+        assertArrayEquals(new double[]{5, 6, 7, 8, 9, 10, 11, 12}, values, 0);
+        assertEquals(5, series.getDroppedSamples());
+
+        series.record(start + 13, 13);
+        assertEquals(13, series.drainSamples()[1], 0);
+    }
+}
@@ -0,0 +1,179 @@
+package com.frcforftc.wittydashboard.sendables;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.frcforftc.wittydashboard.topics.TopicSink;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Checks that posting a compiled builder allocates nothing once it reached its steady state,
+ * by counting the bytes the posting thread allocates across many posts.
+ */
+public class SendableBuilderAllocationTest {
+    private static final int WARMUP_POSTS = 2000;
+    private static final int MEASURED_POSTS = 1000;
+    private static final long PERIOD_MS = 1;
+
+    /**
+     * A sendable whose values change on every sample, so that every post sends every property.
+     */
+    private static final class ChangingSendable implements Sendable {
+        private final double[] m_array = new double[8];
+        private double m_double;
+        private int m_int;
+        private boolean m_boolean;
+
+        @Override
+        public void initSendable(SendableBuilder builder) {
+            builder.setSmartDashboardType("Test");
+            builder.setUpdatePeriod(PERIOD_MS);
+            builder.addPrimitiveDoubleProperty("Double", () -> m_double += 0.5, null);
+            builder.addPrimitiveIntProperty("Int", () -> m_int++, null);
+            builder.addPrimitiveBooleanProperty("Boolean", () -> m_boolean = !m_boolean, null);
+            builder.addDoubleArrayProperty("Array", () -> {
+                m_array[0] += 1;
+                return m_array;
+            }, null);
+            builder.addStringProperty("String", () -> "constant", null);
+        }
+    }
+
+    /**
+     * A builder that is not connected to NetworkTables.
+     */
+    private static final class TestBuilder extends SendableBuilder {
+        private TestBuilder(Sendable sendable) {
+            super(sendable);
+        }
+
+        @Override
+        public void publishDoubleProperty(String key, Supplier<Double> getter, Consumer<Double> setter) {
+        }
+
+        @Override
+        public void publishDoubleArrayProperty(String key, Supplier<double[]> getter, Consumer<double[]> setter) {
+        }
+
+        @Override
+        public void publishBooleanProperty(String key, Supplier<Boolean> getter, Consumer<Boolean> setter) {
+        }
+
+        @Override
+        public void publishBooleanArrayProperty(String key, Supplier<boolean[]> getter, Consumer<boolean[]> setter) {
+        }
+
+        @Override
+        public void publishStringProperty(String key, Supplier<String> getter, Consumer<String> setter) {
+        }
+
+        @Override
+        public void publishStringArrayProperty(String key, Supplier<String[]> getter, Consumer<String[]> setter) {
+        }
+
+        @Override
+        public void publishRawProperty(String key, Supplier<byte[]> getter, Consumer<byte[]> setter) {
+        }
+
+        @Override
+        public void publishIntProperty(String key, Supplier<Integer> getter, Consumer<Integer> setter) {
+        }
+
+        @Override
+        public void publishFloatProperty(String key, Supplier<Float> getter, Consumer<Float> setter) {
+        }
+
+        @Override
+        public void publishIntArrayProperty(String key, Supplier<int[]> getter, Consumer<int[]> setter) {
+        }
+
+        @Override
+        public void publishFloatArrayProperty(String key, Supplier<float[]> getter, Consumer<float[]> setter) {
+        }
+    }
+
+    /**
+     * Counts the values it receives without keeping them.
+     */
+    private static final class CountingSink implements TopicSink {
+        private long m_count;
+
+        @Override
+        public void putBoolean(String key, boolean value, long timestampNanos) {
+            m_count++;
+        }
+
+        @Override
+        public void putDouble(String key, double value, long timestampNanos) {
+            m_count++;
+        }
+
+        @Override
+        public void putFloat(String key, float value, long timestampNanos) {
+            m_count++;
+        }
+
+        @Override
+        public void putInt(String key, int value, long timestampNanos) {
+            m_count++;
+        }
+
+        @Override
+        public void putObject(String key, NetworkTablesValueType type, Object value, long timestampNanos) {
+            m_count++;
+        }
+    }
+
+    @Test
+    public void steadyStatePostDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        TestBuilder builder = new TestBuilder(new ChangingSendable());
+        CountingSink sink = new CountingSink();
+        postEveryPeriod(builder, sink, WARMUP_POSTS);
+
+        long sentBefore = sink.m_count;
+        long before = threads.getThreadAllocatedBytes(thread);
+        postEveryPeriod(builder, sink, MEASURED_POSTS);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // Every post sampled and sent the four changing properties
+        assertTrue("Only " + (sink.m_count - sentBefore) + " values were sent",
+                sink.m_count - sentBefore >= 4L * MEASURED_POSTS);
+        // Allows for a few one-off allocations of the runtime, not for one per post
+        assertTrue("Posting allocated " + allocated + " bytes over " + MEASURED_POSTS + " posts",
+                allocated < MEASURED_POSTS);
+    }
+
+    /**
+     * Posts the builder once per update period, so that every post samples every property.
+     */
+    private static void postEveryPeriod(SendableBuilder builder, TopicSink sink, int posts) {
+        long periodNanos = TimeUnit.MILLISECONDS.toNanos(PERIOD_MS);
+        for (int i = 0; i < posts; i++) {
+            long deadline = System.nanoTime() + periodNanos;
+            while (System.nanoTime() - deadline < 0) {
+                Thread.onSpinWait();
+            }
+            builder.post("Test", sink);
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+
+        com.sun.management.ThreadMXBean allocationThreads = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocationThreads.isThreadAllocatedMemorySupported());
+        allocationThreads.setThreadAllocatedMemoryEnabled(true);
+        return allocationThreads;
+    }
+}
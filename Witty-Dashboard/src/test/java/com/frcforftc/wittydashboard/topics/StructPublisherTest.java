@@ -0,0 +1,94 @@
+package com.frcforftc.wittydashboard.topics;
+
+import static org.junit.Assert.assertEquals;
+
+import com.arcrobotics.ftclib.geometry.Pose2d;
+import com.arcrobotics.ftclib.geometry.Rotation2d;
+import com.frcforftc.wittydashboard.struct.GeometryStructs;
+
+import org.frcforftc.networktables.NetworkTablesValueType;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Checks the layout of packed struct values and the schemas published along with them.
+ */
+public class StructPublisherTest {
+    /**
+     * A sink keeping the last raw value and type string of every key.
+     */
+    private static final class RawSink implements TopicSink {
+        private final Map<String, byte[]> m_values = new HashMap<>();
+        private final Map<String, String> m_types = new HashMap<>();
+
+        private String getSchema(String typeName) {
+            return new String(m_values.get(IngestBuffer.SCHEMA_TABLE + "struct:" + typeName), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void putBoolean(String key, boolean value, long timestampNanos) {
+        }
+
+        @Override
+        public void putDouble(String key, double value, long timestampNanos) {
+        }
+
+        @Override
+        public void putFloat(String key, float value, long timestampNanos) {
+        }
+
+        @Override
+        public void putInt(String key, int value, long timestampNanos) {
+        }
+
+        @Override
+        public void putObject(String key, NetworkTablesValueType type, Object value, long timestampNanos) {
+        }
+
+        @Override
+        public void putRaw(String key, String typeString, byte[] value, long timestampNanos) {
+            m_values.put(key, value.clone());
+            m_types.put(key, typeString);
+        }
+    }
+
+    @Test
+    public void packsPosesBackToBack() {
+        IngestBuffer ingest = new IngestBuffer();
+        RawSink sink = new RawSink();
+        StructArrayPublisher<Pose2d> publisher = ingest.structArrayPublisher("Poses", GeometryStructs.POSE2D);
+
+        publisher.set(new Pose2d[]{new Pose2d(1, 2, new Rotation2d(0.5)), new Pose2d(-3, 4, new Rotation2d(-1))});
+        ingest.drain(sink);
+
+        assertEquals("struct:Pose2d[]", sink.m_types.get("Poses"));
+        ByteBuffer buffer = ByteBuffer.wrap(sink.m_values.get("Poses")).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(2 * 24, buffer.remaining());
+        assertEquals(1, buffer.getDouble(), 0);
+        assertEquals(2, buffer.getDouble(), 0);
+        assertEquals(0.5, buffer.getDouble(), 0);
+        Pose2d second = GeometryStructs.POSE2D.unpack(buffer);
+        assertEquals(-3, second.getX(), 0);
+        assertEquals(4, second.getY(), 0);
+        assertEquals(-1, second.getHeading(), 0);
+    }
+
+    @Test
+    public void publishesTheSchemasOfNestedStructs() {
+        IngestBuffer ingest = new IngestBuffer();
+        RawSink sink = new RawSink();
+        ingest.structPublisher("Pose", GeometryStructs.POSE2D).set(new Pose2d());
+        ingest.drain(sink);
+
+        assertEquals("struct:Pose2d", sink.m_types.get("Pose"));
+        assertEquals("structschema", sink.m_types.get(IngestBuffer.SCHEMA_TABLE + "struct:Pose2d"));
+        assertEquals("Translation2d translation;Rotation2d rotation", sink.getSchema("Pose2d"));
+        assertEquals("double x;double y", sink.getSchema("Translation2d"));
+        assertEquals("double value", sink.getSchema("Rotation2d"));
+    }
+}